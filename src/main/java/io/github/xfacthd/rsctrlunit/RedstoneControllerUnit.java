@@ -2,10 +2,14 @@ package io.github.xfacthd.rsctrlunit;
 
 import com.mojang.logging.LogUtils;
 import io.github.xfacthd.rsctrlunit.common.RCUContent;
+import io.github.xfacthd.rsctrlunit.common.command.RCUCommands;
 import io.github.xfacthd.rsctrlunit.common.compat.CompatHandler;
+import io.github.xfacthd.rsctrlunit.common.config.ServerConfig;
 import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.InterpreterThreadPool;
 import io.github.xfacthd.rsctrlunit.common.net.NetworkSetup;
+import io.github.xfacthd.rsctrlunit.common.util.CodeStore;
 import net.neoforged.bus.api.IEventBus;
+import net.neoforged.fml.ModContainer;
 import net.neoforged.fml.common.Mod;
 import org.slf4j.Logger;
 
@@ -16,13 +20,16 @@ public final class RedstoneControllerUnit
     public static final String MOD_ID = "rsctrlunit";
     public static final Logger LOGGER = LogUtils.getLogger();
 
-    public RedstoneControllerUnit(IEventBus modBus)
+    public RedstoneControllerUnit(IEventBus modBus, ModContainer container)
     {
         RCUContent.init(modBus);
+        ServerConfig.init(modBus, container);
 
         modBus.addListener(NetworkSetup::onRegisterPayloadHandlers);
 
         InterpreterThreadPool.init();
+        CodeStore.init();
+        RCUCommands.init();
         CompatHandler.init(modBus);
     }
 }
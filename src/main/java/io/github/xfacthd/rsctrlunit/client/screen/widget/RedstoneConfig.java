@@ -45,6 +45,7 @@ public final class RedstoneConfig
     public static final Component TOOLTIP_TYPE_NONE = Component.translatable("tooltip.rsctrlunit.redstone_type.none");
     public static final Component TOOLTIP_TYPE_SINGLE = Component.translatable("tooltip.rsctrlunit.redstone_type.single");
     public static final Component TOOLTIP_TYPE_BUNDLED = Component.translatable("tooltip.rsctrlunit.redstone_type.bundled");
+    public static final Component TOOLTIP_TYPE_SERIAL = Component.translatable("tooltip.rsctrlunit.redstone_type.serial");
     public static final String TOOLTIP_PORT_BIT_KEY = "tooltip.rsctrlunit.port_config.port_bit";
     private static final Component[] TOOLTIP_PORT_BIT = Util.make(new Component[8], arr ->
     {
@@ -103,11 +104,8 @@ public final class RedstoneConfig
 
         switch (cfg)
         {
-            case NonePortConfig ignored ->
-            {
-                ClientUtils.drawButton(graphics, font, x + X_DIR, y, WIDTH_DIR, HEIGHT, "-", false, true, true, 0, mouseX, mouseY);
-                ClientUtils.drawButton(graphics, font, x + X_PIN_BTN_LEFT, y, WIDTH_PIN, HEIGHT, "-", false, true, true, 0, mouseX, mouseY);
-            }
+            case NonePortConfig ignored -> drawEmptyButtons(graphics, font, mouseX, mouseY);
+            case SerialPortConfig ignored -> drawEmptyButtons(graphics, font, mouseX, mouseY);
             case SinglePortConfig single ->
             {
                 ClientUtils.drawButton(graphics, font, x + X_DIR, y, WIDTH_DIR, HEIGHT, single.input() ? TEXT_INPUT : TEXT_OUTPUT, true, false, true, false, 0, mouseX, mouseY);
@@ -131,6 +129,12 @@ public final class RedstoneConfig
         }
     }
 
+    private void drawEmptyButtons(GuiGraphics graphics, Font font, int mouseX, int mouseY)
+    {
+        ClientUtils.drawButton(graphics, font, x + X_DIR, y, WIDTH_DIR, HEIGHT, "-", false, true, true, 0, mouseX, mouseY);
+        ClientUtils.drawButton(graphics, font, x + X_PIN_BTN_LEFT, y, WIDTH_PIN, HEIGHT, "-", false, true, true, 0, mouseX, mouseY);
+    }
+
     public void drawTooltip(GuiGraphics graphics, Font font, int mouseX, int mouseY, PortConfig[] configs)
     {
         if (mouseX >= x + X_TYPE && mouseX < x + WIDTH && mouseY >= y && mouseY <= y + HEIGHT)
@@ -144,6 +148,13 @@ public final class RedstoneConfig
                         graphics.renderTooltip(font, TOOLTIP_TYPE_NONE, mouseX, mouseY);
                     }
                 }
+                case SerialPortConfig ignored ->
+                {
+                    if (mouseX < x + X_TYPE + WIDTH_TYPE)
+                    {
+                        graphics.renderTooltip(font, TOOLTIP_TYPE_SERIAL, mouseX, mouseY);
+                    }
+                }
                 case SinglePortConfig single ->
                 {
                     if (mouseX < x + X_TYPE + WIDTH_TYPE)
@@ -197,6 +208,7 @@ public final class RedstoneConfig
             switch (config)
             {
                 case NonePortConfig ignored -> { }
+                case SerialPortConfig ignored -> { }
                 case SinglePortConfig single ->
                 {
                     if (mouseX >= x + X_DIR && mouseX < x + X_DIR + WIDTH_DIR)
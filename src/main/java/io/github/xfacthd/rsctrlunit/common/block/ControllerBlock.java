@@ -91,6 +91,7 @@ public final class ControllerBlock extends Block implements EntityBlock
         {
             if (!level.isClientSide())
             {
+                controller.notifyIfCodeMissing(player);
                 ProgrammerItem.openMenu(player, stack, controller);
             }
             return ItemInteractionResult.sidedSuccess(level.isClientSide());
@@ -103,6 +104,7 @@ public final class ControllerBlock extends Block implements EntityBlock
     {
         if (!level.isClientSide() && level.getBlockEntity(pos) instanceof ControllerBlockEntity be)
         {
+            be.notifyIfCodeMissing(player);
             Direction facing = state.getValue(BlockStateProperties.FACING);
             player.openMenu(new MenuProvider()
             {
@@ -1,11 +1,15 @@
 package io.github.xfacthd.rsctrlunit.common.blockentity;
 
+import io.github.xfacthd.rsctrlunit.RedstoneControllerUnit;
 import io.github.xfacthd.rsctrlunit.common.RCUContent;
+import io.github.xfacthd.rsctrlunit.common.config.ServerConfig;
 import io.github.xfacthd.rsctrlunit.common.emulator.core.CPUCore;
 import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.*;
 import io.github.xfacthd.rsctrlunit.common.emulator.util.Code;
 import io.github.xfacthd.rsctrlunit.common.emulator.util.Constants;
 import io.github.xfacthd.rsctrlunit.common.redstone.RedstoneInterface;
+import io.github.xfacthd.rsctrlunit.common.util.CodeStore;
+import net.minecraft.ChatFormatting;
 import net.minecraft.core.*;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.Connection;
@@ -13,6 +17,8 @@ import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientGamePacketListener;
 import net.minecraft.network.protocol.game.ClientboundBlockEntityDataPacket;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.entity.BlockEntity;
@@ -28,35 +34,98 @@ import java.util.Objects;
 public final class ControllerBlockEntity extends BlockEntity
 {
     public static final Component TITLE = Component.translatable("menu.rsctrlunit.controller");
+    public static final String MSG_PROGRAM_MISSING = "msg.rsctrlunit.controller.program_missing";
     public static final ModelProperty<int[]> PORT_MAPPING_PROPERTY = new ModelProperty<>();
 
-    private final Interpreter interpreter = new Interpreter(new Interpreter.InterpreterContext(CPUCore.CPU8051, Constants.ROM_SIZE, Constants.RAM_SIZE, Constants.SFR_SIZE, Constants.EXT_RAM_SIZE));
+    private final Interpreter interpreter = new Interpreter(new Interpreter.InterpreterContext(CPUCore.CPU8051, Constants.ROM_SIZE, Constants.RAM_SIZE, Constants.SFR_SIZE, ServerConfig.externalRamSize));
     private final Timers timers = interpreter.getTimers();
     private final RedstoneInterface redstone = new RedstoneInterface(this);
     // Keep around the chunk holding this BE to avoid having to look it up every tick to mark it as unsaved
     @Nullable
     private LevelChunk owningChunk = null;
+    private int lastStateVersion = 0;
+    // Hash of the program in the world's code store, the program itself is not saved with the BE
+    @Nullable
+    private String codeHash = null;
+    // Hash loaded from NBT which still has to be resolved once the level is known
+    @Nullable
+    private String pendingCodeHash = null;
+    // Set if the program saved with this controller is missing from the code store, the hash is kept to not lose
+    // the program for good in case the store gets restored
+    private boolean codeMissing = false;
+    private boolean chunkUnloading = false;
 
     public ControllerBlockEntity(BlockPos pos, BlockState state)
     {
         super(RCUContent.BE_TYPE_CONTROLLER.value(), pos, state);
         redstone.setFacing(state.getValue(BlockStateProperties.FACING));
+        interpreter.setOscillatorFrequency(ServerConfig.defaultOscillatorFrequency);
     }
 
     public void tick()
     {
         timers.tickClock();
         redstone.tick();
-        setChangedWithoutSignalUpdate();
+        // Only mark the chunk as unsaved if anything changed, idle controllers would otherwise rewrite it on every save
+        int stateVersion = interpreter.getStateVersion() + redstone.getStateVersion();
+        if (stateVersion != lastStateVersion)
+        {
+            lastStateVersion = stateVersion;
+            setChangedWithoutSignalUpdate();
+        }
     }
 
     public void loadCode(@Nullable Code code)
     {
         code = Objects.requireNonNullElse(code, Code.EMPTY);
-        interpreter.writeLockGuarded(code, Interpreter::loadCode);
+        interpreter.post(code, Interpreter::loadCode);
+        if (level instanceof ServerLevel serverLevel)
+        {
+            codeHash = CodeStore.get(serverLevel).reference(GlobalPos.of(serverLevel.dimension(), worldPosition), code, serverLevel.getGameTime());
+            codeMissing = false;
+        }
         setChangedWithoutSignalUpdate();
     }
 
+    /**
+     * Resolve the program hash loaded from NBT and reference the current program in the code store
+     */
+    private void referenceCode(ServerLevel level)
+    {
+        CodeStore store = CodeStore.get(level);
+        GlobalPos pos = GlobalPos.of(level.dimension(), worldPosition);
+        String hash = pendingCodeHash;
+        if (hash != null)
+        {
+            pendingCodeHash = null;
+            Code code = store.restore(pos, hash, level.getGameTime());
+            codeHash = hash;
+            codeMissing = code == null;
+            if (code == null)
+            {
+                RedstoneControllerUnit.LOGGER.error("Program {} of controller at {} is missing from the code store", hash, worldPosition);
+                return;
+            }
+            interpreter.writeLockGuarded(code, Interpreter::restoreCode);
+            lastStateVersion = interpreter.getStateVersion() + redstone.getStateVersion();
+        }
+        else if (!codeMissing)
+        {
+            codeHash = store.reference(pos, interpreter.getCode(), level.getGameTime());
+        }
+    }
+
+    /**
+     * Tell the given player if the program of this controller couldn't be restored from the code store
+     */
+    public void notifyIfCodeMissing(Player player)
+    {
+        if (codeMissing)
+        {
+            player.displayClientMessage(Component.translatable(MSG_PROGRAM_MISSING, codeHash).withStyle(ChatFormatting.RED), false);
+        }
+    }
+
     public Interpreter getInterpreter()
     {
         return interpreter;
@@ -144,22 +213,44 @@ public final class ControllerBlockEntity extends BlockEntity
     {
         super.clearRemoved();
         owningChunk = level().getChunkAt(worldPosition);
+        chunkUnloading = false;
+        if (level() instanceof ServerLevel serverLevel)
+        {
+            // Must be done before the interpreter gets added to the thread pool
+            referenceCode(serverLevel);
+        }
         if (!level().isClientSide())
         {
             interpreter.startup();
-            InterpreterThreadPool.addInterpreter(interpreter);
+            InterpreterThreadPool.addInterpreter(interpreter, (ServerLevel) level(), worldPosition);
         }
     }
 
+    @Override
+    public void onChunkUnloaded()
+    {
+        chunkUnloading = true;
+    }
+
     @Override
     public void setRemoved()
     {
         super.setRemoved();
+        LevelChunk chunk = owningChunk;
         owningChunk = null;
         if (!level().isClientSide())
         {
+            redstone.onRemoved();
             interpreter.shutdown();
             InterpreterThreadPool.removeInterpreter(interpreter);
+            // The program stays referenced while the chunk is unloaded, the reference is only dropped when the
+            // controller is destroyed and not replaced by another controller which took over the reference
+            BlockEntity current = chunk != null ? chunk.getBlockEntity(worldPosition, LevelChunk.EntityCreationType.CHECK) : null;
+            if (!chunkUnloading && (current == null || current == this))
+            {
+                ServerLevel serverLevel = (ServerLevel) level();
+                CodeStore.get(serverLevel).release(GlobalPos.of(serverLevel.dimension(), worldPosition), serverLevel.getGameTime());
+            }
         }
     }
 
@@ -178,13 +269,28 @@ public final class ControllerBlockEntity extends BlockEntity
         super.loadAdditional(tag, lookup);
         interpreter.writeLockGuarded(tag.getCompound("interpreter"), Interpreter::load);
         redstone.load(tag.getCompound("redstone"));
+        lastStateVersion = interpreter.getStateVersion() + redstone.getStateVersion();
+        // Controllers saved before the code store was introduced carry their program inline
+        pendingCodeHash = tag.contains("code_hash") ? tag.getString("code_hash") : null;
+        codeMissing = false;
+        if (level instanceof ServerLevel serverLevel && !isRemoved())
+        {
+            // Data loaded into a controller which is already in the level
+            referenceCode(serverLevel);
+        }
     }
 
     @Override
     protected void saveAdditional(CompoundTag tag, HolderLookup.Provider lookup)
     {
         super.saveAdditional(tag, lookup);
-        tag.put("interpreter", interpreter.readLockGuarded(Interpreter::save));
+        String hash = codeHash != null ? codeHash : pendingCodeHash;
+        // Fall back to saving the program inline if it hasn't been put in the code store yet
+        tag.put("interpreter", interpreter.readLockGuarded(interp -> interp.save(hash == null)));
+        if (hash != null)
+        {
+            tag.putString("code_hash", hash);
+        }
         tag.put("redstone", redstone.save());
     }
 }
@@ -0,0 +1,76 @@
+package io.github.xfacthd.rsctrlunit.common.command;
+
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import io.github.xfacthd.rsctrlunit.RedstoneControllerUnit;
+import io.github.xfacthd.rsctrlunit.common.config.ServerConfig;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.ExecutionGovernor;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+
+public final class RCUCommands
+{
+    public static final String MSG_BUDGET_STATUS = "commands.rsctrlunit.budget.status";
+    public static final Component MSG_BUDGET_UNLIMITED = Component.translatable("commands.rsctrlunit.budget.unlimited");
+    public static final String MSG_BUDGET_SET = "commands.rsctrlunit.budget.set";
+    private static final String ARG_INSTRUCTIONS = "instructions_per_second";
+
+    public static void init()
+    {
+        NeoForge.EVENT_BUS.addListener(RCUCommands::onRegisterCommands);
+    }
+
+    private static void onRegisterCommands(RegisterCommandsEvent event)
+    {
+        event.getDispatcher().register(Commands.literal(RedstoneControllerUnit.MOD_ID)
+                .requires(source -> source.hasPermission(Commands.LEVEL_GAMEMASTERS))
+                .then(Commands.literal("budget")
+                        .executes(RCUCommands::printBudget)
+                        .then(Commands.literal("set")
+                                .then(Commands.argument(ARG_INSTRUCTIONS, IntegerArgumentType.integer(0))
+                                        .executes(RCUCommands::setBudget)
+                                )
+                        )
+                )
+        );
+    }
+
+    private static int printBudget(CommandContext<CommandSourceStack> ctx)
+    {
+        ctx.getSource().sendSuccess(() -> Component.translatable(
+                MSG_BUDGET_STATUS,
+                formatBudget(ExecutionGovernor.getEffectiveBudget()),
+                formatBudget(ServerConfig.instructionBudget > 0 ? ServerConfig.instructionBudget : Double.POSITIVE_INFINITY),
+                formatBudget(ExecutionGovernor.getExecutedPerSecond()),
+                String.format("%.1f", ExecutionGovernor.getAverageTickMillis()),
+                ServerConfig.targetTickMillis
+        ), false);
+        return 1;
+    }
+
+    private static int setBudget(CommandContext<CommandSourceStack> ctx)
+    {
+        int budget = IntegerArgumentType.getInteger(ctx, ARG_INSTRUCTIONS);
+        ServerConfig.setInstructionBudget(budget);
+        ctx.getSource().sendSuccess(() -> Component.translatable(
+                MSG_BUDGET_SET, formatBudget(budget > 0 ? budget : Double.POSITIVE_INFINITY)
+        ), true);
+        return 1;
+    }
+
+    private static Component formatBudget(double budget)
+    {
+        if (budget == Double.POSITIVE_INFINITY)
+        {
+            return MSG_BUDGET_UNLIMITED;
+        }
+        return Component.literal(String.format("%,d", (long) budget));
+    }
+
+
+
+    private RCUCommands() { }
+}
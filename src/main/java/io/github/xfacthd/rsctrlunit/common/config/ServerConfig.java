@@ -0,0 +1,220 @@
+package io.github.xfacthd.rsctrlunit.common.config;
+
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.BlockCache;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.ExecutionEngine;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.ExternalRam;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.HibernationPolicy;
+import io.github.xfacthd.rsctrlunit.common.emulator.util.Constants;
+import io.github.xfacthd.rsctrlunit.common.emulator.util.TimerClockSource;
+import net.neoforged.bus.api.IEventBus;
+import net.neoforged.fml.ModContainer;
+import net.neoforged.fml.config.ModConfig;
+import net.neoforged.fml.event.config.ModConfigEvent;
+import net.neoforged.neoforge.common.ModConfigSpec;
+
+public final class ServerConfig
+{
+    public static final ModConfigSpec SPEC;
+
+    private static final ModConfigSpec.IntValue INSTRUCTIONS_PER_SLICE_VALUE;
+    private static final ModConfigSpec.IntValue SLICE_TIME_LIMIT_VALUE;
+    private static final ModConfigSpec.IntValue MAX_CATCH_UP_VALUE;
+    private static final ModConfigSpec.IntValue DEFAULT_OSCILLATOR_FREQUENCY_VALUE;
+    private static final ModConfigSpec.EnumValue<TimerClockSource> TIMER_CLOCK_SOURCE_VALUE;
+    private static final ModConfigSpec.EnumValue<ExecutionEngine> EXECUTION_ENGINE_VALUE;
+    private static final ModConfigSpec.IntValue JIT_COMPILE_THRESHOLD_VALUE;
+    private static final ModConfigSpec.BooleanValue PARK_IDLE_LOOPS_VALUE;
+    private static final ModConfigSpec.BooleanValue SKIP_DELAY_LOOPS_VALUE;
+    private static final ModConfigSpec.IntValue INTERPRETER_THREADS_VALUE;
+    private static final ModConfigSpec.BooleanValue TICK_SYNCHRONOUS_VALUE;
+    private static final ModConfigSpec.IntValue EXTERNAL_RAM_SIZE_VALUE;
+    private static final ModConfigSpec.IntValue INSTRUCTION_BUDGET_VALUE;
+    private static final ModConfigSpec.IntValue TARGET_TICK_MILLIS_VALUE;
+    private static final ModConfigSpec.EnumValue<HibernationPolicy> HIBERNATION_POLICY_VALUE;
+    private static final ModConfigSpec.IntValue HIBERNATION_PLAYER_RANGE_VALUE;
+    private static final ModConfigSpec.IntValue HIBERNATION_THROTTLE_DIVISOR_VALUE;
+    private static final ModConfigSpec.BooleanValue HIBERNATION_CATCH_UP_TIMERS_VALUE;
+
+    public static volatile int instructionsPerSlice = 10_000;
+    public static volatile int sliceTimeLimitMicros = 500;
+    public static volatile int maxCatchUpMillis = 50;
+    public static volatile int defaultOscillatorFrequency = Constants.DEFAULT_OSCILLATOR_FREQUENCY;
+    public static volatile TimerClockSource timerClockSource = TimerClockSource.GAME_TICK;
+    public static volatile ExecutionEngine executionEngine = ExecutionEngine.SWITCH;
+    public static volatile int jitCompileThreshold = BlockCache.DEFAULT_COMPILE_THRESHOLD;
+    public static volatile boolean parkIdleLoops = true;
+    public static volatile boolean skipDelayLoops = true;
+    public static volatile int interpreterThreads = 0;
+    public static volatile boolean tickSynchronous = false;
+    public static volatile int externalRamSize = Constants.EXT_RAM_SIZE;
+    public static volatile int instructionBudget = 0;
+    public static volatile int targetTickMillis = 45;
+    public static volatile HibernationPolicy hibernationPolicy = HibernationPolicy.NONE;
+    public static volatile int hibernationPlayerRange = 0;
+    public static volatile int hibernationThrottleDivisor = 10;
+    public static volatile boolean hibernationCatchUpTimers = true;
+
+    static
+    {
+        ModConfigSpec.Builder builder = new ModConfigSpec.Builder();
+
+        builder.push("interpreter");
+        INSTRUCTIONS_PER_SLICE_VALUE = builder
+                .comment("Maximum amount of instructions each controller executes per scheduler wake-up")
+                .defineInRange("instructionsPerSlice", 10_000, 1, 1_000_000);
+        SLICE_TIME_LIMIT_VALUE = builder
+                .comment(
+                        "Maximum wall time in microseconds a single execution slice may take before yielding to other controllers",
+                        "Set to 0 to only limit slices by their instruction budget"
+                )
+                .defineInRange("sliceTimeLimitMicros", 500, 0, 50_000);
+        MAX_CATCH_UP_VALUE = builder
+                .comment(
+                        "Maximum amount of elapsed time in milliseconds a controller may catch up on after falling behind",
+                        "Any machine cycles owed beyond this are dropped"
+                )
+                .defineInRange("maxCatchUpMillis", 50, 1, 1000);
+        DEFAULT_OSCILLATOR_FREQUENCY_VALUE = builder
+                .comment("Oscillator frequency in Hz newly placed controllers run at, one machine cycle takes 12 oscillator periods")
+                .defineInRange("defaultOscillatorFrequency", Constants.DEFAULT_OSCILLATOR_FREQUENCY, Constants.OSCILLATOR_PERIODS_PER_CYCLE, Constants.MAX_OSCILLATOR_FREQUENCY);
+        TIMER_CLOCK_SOURCE_VALUE = builder
+                .comment(
+                        "Clock source used by the timers when running in timer mode",
+                        "GAME_TICK: timers advance once per game tick",
+                        "MACHINE_CYCLE: timers advance once per executed machine cycle"
+                )
+                .defineEnum("timerClockSource", TimerClockSource.GAME_TICK);
+        EXECUTION_ENGINE_VALUE = builder
+                .comment(
+                        "Engine used to execute instructions",
+                        "OPCODE_TABLE: looks up and invokes the function of each opcode",
+                        "SWITCH: dispatches opcodes through a switch without any per-instruction allocation",
+                        "JIT: like SWITCH, but compiles frequently executed code to JVM bytecode",
+                        "With JIT, interrupts and timers are only serviced between compiled blocks"
+                )
+                .defineEnum("executionEngine", ExecutionEngine.SWITCH);
+        JIT_COMPILE_THRESHOLD_VALUE = builder
+                .comment("Amount of times execution has to reach an address before the JIT engine compiles the code starting there")
+                .defineInRange("jitCompileThreshold", BlockCache.DEFAULT_COMPILE_THRESHOLD, 1, 1_000_000);
+        PARK_IDLE_LOOPS_VALUE = builder
+                .comment(
+                        "Detect loops which only wait for an input, a timer overflow or an interrupt and skip over them",
+                        "instead of executing them instruction by instruction. Has no effect with the OPCODE_TABLE engine"
+                )
+                .define("parkIdleLoops", true);
+        SKIP_DELAY_LOOPS_VALUE = builder
+                .comment(
+                        "Skip busy-wait countdown loops built from DJNZ in constant time instead of executing every iteration",
+                        "Has no effect with the OPCODE_TABLE engine"
+                )
+                .define("skipDelayLoops", true);
+        INTERPRETER_THREADS_VALUE = builder
+                .comment(
+                        "Amount of worker threads controllers are executed on, idle workers take over work from busy ones",
+                        "Set to 0 to use all available cores except two which are left to the server",
+                        "Changes only take effect after restarting the server"
+                )
+                .defineInRange("interpreterThreads", 0, 0, 256);
+        TICK_SYNCHRONOUS_VALUE = builder
+                .comment(
+                        "Execute all controllers in lockstep with the server tick instead of letting them run in the background",
+                        "Each controller executes exactly one tick worth of machine cycles in parallel before block entities tick,",
+                        "which makes the behavior independent of server load at the cost of the server waiting for the slowest controller"
+                )
+                .define("tickSynchronous", false);
+        EXTERNAL_RAM_SIZE_VALUE = builder
+                .comment(
+                        "Size of the external RAM accessible via MOVX in KiB, addresses beyond it wrap around",
+                        "Memory is only allocated in pages of 256 bytes once a program writes to them",
+                        "Shrinking the size discards the contents beyond the new size"
+                )
+                .defineInRange("externalRamSizeKiB", Constants.EXT_RAM_SIZE / 1024, 1, ExternalRam.MAX_SIZE / 1024);
+        builder.pop();
+
+        builder.push("governor");
+        INSTRUCTION_BUDGET_VALUE = builder
+                .comment(
+                        "Maximum amount of instructions per second all controllers may execute combined, shared between them by oscillator frequency",
+                        "Set to 0 to only limit controllers while the server falls behind. Not enforced in tick-synchronous mode"
+                )
+                .defineInRange("instructionBudget", 0, 0, Integer.MAX_VALUE);
+        TARGET_TICK_MILLIS_VALUE = builder
+                .comment(
+                        "Average tick time in milliseconds above which the instruction budget is lowered until the server recovers",
+                        "The budget is raised again once the tick time drops below 80% of this value"
+                )
+                .defineInRange("targetTickMillis", 45, 1, 1000);
+        builder.pop();
+
+        builder.push("hibernation");
+        HIBERNATION_POLICY_VALUE = builder
+                .comment(
+                        "How controllers are treated while they are unattended, which is the case when their chunk is not",
+                        "entity-ticking or, if a player range is configured, no player is within that range",
+                        "NONE: unattended controllers keep running at full speed",
+                        "THROTTLE: unattended controllers run with their clock slowed down by the configured divisor",
+                        "PAUSE: unattended controllers stop executing until they are attended again"
+                )
+                .defineEnum("policy", HibernationPolicy.NONE);
+        HIBERNATION_PLAYER_RANGE_VALUE = builder
+                .comment(
+                        "Distance in blocks within which a player has to be for a controller in an entity-ticking chunk to be attended",
+                        "Set to 0 to only consider the ticking level of the chunk"
+                )
+                .defineInRange("playerRange", 0, 0, 1024);
+        HIBERNATION_THROTTLE_DIVISOR_VALUE = builder
+                .comment("Factor by which the clock of unattended controllers is slowed down with the THROTTLE policy")
+                .defineInRange("throttleDivisor", 10, 2, 1000);
+        HIBERNATION_CATCH_UP_TIMERS_VALUE = builder
+                .comment(
+                        "Advance the timers of paused controllers by the time they were paused for once they are attended again",
+                        "Instructions are never caught up on, only the timer counts and overflow flags"
+                )
+                .define("catchUpTimers", true);
+        builder.pop();
+
+        SPEC = builder.build();
+    }
+
+    public static void init(IEventBus modBus, ModContainer container)
+    {
+        container.registerConfig(ModConfig.Type.SERVER, SPEC);
+        modBus.addListener(ServerConfig::onConfigReloaded);
+    }
+
+    private static void onConfigReloaded(ModConfigEvent event)
+    {
+        if (event.getConfig().getSpec() == SPEC && SPEC.isLoaded())
+        {
+            instructionsPerSlice = INSTRUCTIONS_PER_SLICE_VALUE.get();
+            sliceTimeLimitMicros = SLICE_TIME_LIMIT_VALUE.get();
+            maxCatchUpMillis = MAX_CATCH_UP_VALUE.get();
+            defaultOscillatorFrequency = DEFAULT_OSCILLATOR_FREQUENCY_VALUE.get();
+            timerClockSource = TIMER_CLOCK_SOURCE_VALUE.get();
+            executionEngine = EXECUTION_ENGINE_VALUE.get();
+            jitCompileThreshold = JIT_COMPILE_THRESHOLD_VALUE.get();
+            parkIdleLoops = PARK_IDLE_LOOPS_VALUE.get();
+            skipDelayLoops = SKIP_DELAY_LOOPS_VALUE.get();
+            interpreterThreads = INTERPRETER_THREADS_VALUE.get();
+            tickSynchronous = TICK_SYNCHRONOUS_VALUE.get();
+            externalRamSize = EXTERNAL_RAM_SIZE_VALUE.get() * 1024;
+            instructionBudget = INSTRUCTION_BUDGET_VALUE.get();
+            targetTickMillis = TARGET_TICK_MILLIS_VALUE.get();
+            hibernationPolicy = HIBERNATION_POLICY_VALUE.get();
+            hibernationPlayerRange = HIBERNATION_PLAYER_RANGE_VALUE.get();
+            hibernationThrottleDivisor = HIBERNATION_THROTTLE_DIVISOR_VALUE.get();
+            hibernationCatchUpTimers = HIBERNATION_CATCH_UP_TIMERS_VALUE.get();
+        }
+    }
+
+    public static void setInstructionBudget(int budget)
+    {
+        INSTRUCTION_BUDGET_VALUE.set(budget);
+        INSTRUCTION_BUDGET_VALUE.save();
+        instructionBudget = budget;
+    }
+
+
+
+    private ServerConfig() { }
+}
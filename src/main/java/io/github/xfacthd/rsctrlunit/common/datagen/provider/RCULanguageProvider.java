@@ -8,6 +8,7 @@ import io.github.xfacthd.rsctrlunit.client.screen.popup.MessageScreen;
 import io.github.xfacthd.rsctrlunit.client.screen.widget.RedstoneConfig;
 import io.github.xfacthd.rsctrlunit.common.RCUContent;
 import io.github.xfacthd.rsctrlunit.common.blockentity.ControllerBlockEntity;
+import io.github.xfacthd.rsctrlunit.common.command.RCUCommands;
 import io.github.xfacthd.rsctrlunit.common.compat.atlasviewer.AtlasViewerCompat;
 import io.github.xfacthd.rsctrlunit.common.menu.ProgrammerMenu;
 import io.github.xfacthd.rsctrlunit.common.util.Utils;
@@ -60,6 +61,7 @@ public final class RCULanguageProvider extends LanguageProvider
         add(RedstoneType.NONE.getTranslatedName(), "None");
         add(RedstoneType.SINGLE.getTranslatedName(), "Single");
         add(RedstoneType.BUNDLED.getTranslatedName(), "Bundle");
+        add(RedstoneType.SERIAL.getTranslatedName(), "Serial");
 
         add(Utils.DIRECTION_NAMES[Direction.DOWN.ordinal()], "Down");
         add(Utils.DIRECTION_NAMES[Direction.UP.ordinal()], "Up");
@@ -123,6 +125,7 @@ public final class RCULanguageProvider extends LanguageProvider
         add(RedstoneConfig.TOOLTIP_TYPE_NONE, "No redstone output");
         add(RedstoneConfig.TOOLTIP_TYPE_SINGLE, "1-bit redstone output to vanilla redstone");
         add(RedstoneConfig.TOOLTIP_TYPE_BUNDLED, "8-bit redstone output to bundled redstone wires");
+        add(RedstoneConfig.TOOLTIP_TYPE_SERIAL, "Serial link to the serial port of an adjacent controller");
         add(RedstoneConfig.TOOLTIP_PORT_BIT_KEY, "Port bit: %s");
         add(RedstoneConfig.TOOLTIP_WIRE_COLOR_KEY, "Wire color: %s");
         add(RedstoneConfig.TOOLTIP_BUNDLED_MAPPING_LOWER, "Bits 0-7 mapped to bundled wire colors 1-8 (White-Gray)");
@@ -182,6 +185,12 @@ public final class RCULanguageProvider extends LanguageProvider
         add(AtlasViewerCompat.LABEL_SPRITE, "Sprite");
         add(AtlasViewerCompat.LABEL_AREA, "Area");
         add(AtlasViewerCompat.VALUE_AREA, "X: %s Y: %s Width: %s Height: %s");
+
+        add(RCUCommands.MSG_BUDGET_STATUS, "Instruction budget: %s/s (configured: %s/s), executed: %s/s, average tick time: %s ms (target: %s ms)");
+        add(RCUCommands.MSG_BUDGET_UNLIMITED, "unlimited");
+        add(RCUCommands.MSG_BUDGET_SET, "Set instruction budget to %s/s");
+
+        add(ControllerBlockEntity.MSG_PROGRAM_MISSING, "The program of this controller (%s) is missing from the code store of this world, load a program to replace it");
     }
 
     private void add(Component key, String value)
@@ -0,0 +1,19 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.core;
+
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.InstructionCache;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compiles basic blocks of predecoded instructions into {@link CompiledBlock}s.
+ */
+@FunctionalInterface
+public interface BlockCompiler {
+    /**
+     * @param cache The predecoded instructions of the loaded program
+     * @param rom The ROM the instructions were decoded from
+     * @param address The address of the first instruction of the block
+     * @return The compiled block or {@code null} if the instruction at the given address can't be compiled
+     */
+    @Nullable
+    CompiledBlock compile(InstructionCache cache, byte[] rom, int address);
+}
@@ -2,7 +2,10 @@ package io.github.xfacthd.rsctrlunit.common.emulator.core;
 
 import io.github.xfacthd.rsctrlunit.common.emulator.assembler.Assembler;
 import io.github.xfacthd.rsctrlunit.common.emulator.core.i8051.I8051Assembler;
+import io.github.xfacthd.rsctrlunit.common.emulator.core.i8051.I8051BlockCompiler;
+import io.github.xfacthd.rsctrlunit.common.emulator.core.i8051.I8051DelayLoops;
 import io.github.xfacthd.rsctrlunit.common.emulator.core.i8051.I8051Disassembler;
+import io.github.xfacthd.rsctrlunit.common.emulator.core.i8051.I8051Executor;
 import io.github.xfacthd.rsctrlunit.common.emulator.core.i8051.I8051Opcode;
 import io.github.xfacthd.rsctrlunit.common.emulator.disassembler.Disassembler;
 import io.github.xfacthd.rsctrlunit.common.emulator.opcode.Opcode;
@@ -14,10 +17,10 @@ import java.util.function.Function;
  * Data required to emulate a given CPU core.
  */
 public enum CPUCore {
-    CPU8051("8051", "Intel", new I8051Assembler(), new I8051Disassembler(), new int[] {0, 0}, b -> I8051Opcode.OPCODES[b & 0xFF]),
-    CPU8080("8080", "Intel", null, null, new int[] {0, 0}, b -> null),
-    CPU8085("8085", "Intel", null, null, new int[] {0, 0}, b -> null),
-    CPUZ80("Z80", "Zilog", null, null, new int[] {0, 0}, b -> null);
+    CPU8051("8051", "Intel", new I8051Assembler(), new I8051Disassembler(), new int[] {0, 0}, b -> I8051Opcode.OPCODES[b & 0xFF], I8051Executor::execute, I8051BlockCompiler::compile, I8051DelayLoops::skip),
+    CPU8080("8080", "Intel", null, null, new int[] {0, 0}, b -> null, null, null, null),
+    CPU8085("8085", "Intel", null, null, new int[] {0, 0}, b -> null, null, null, null),
+    CPUZ80("Z80", "Zilog", null, null, new int[] {0, 0}, b -> null, null, null, null);
 
     public String name;
     public String manufacturer;
@@ -28,14 +31,20 @@ public enum CPUCore {
     public Disassembler disassembler;
 
     public Function<Byte, Opcode> opcodeFunc;
+    public InstructionExecutor executor;
+    public BlockCompiler compiler;
+    public DelayLoopSkipper delayLoopSkipper;
 
-    CPUCore(String name, String manufacturer, Assembler assembler, Disassembler disassembler, int[] registers, Function<Byte, Opcode> opcodeFunc) {
+    CPUCore(String name, String manufacturer, Assembler assembler, Disassembler disassembler, int[] registers, Function<Byte, Opcode> opcodeFunc, InstructionExecutor executor, BlockCompiler compiler, DelayLoopSkipper delayLoopSkipper) {
         this.name = name;
         this.manufacturer = manufacturer;
         this.assembler = assembler;
         this.registers = registers;
         this.disassembler = disassembler;
         this.opcodeFunc = opcodeFunc;
+        this.executor = executor;
+        this.compiler = compiler;
+        this.delayLoopSkipper = delayLoopSkipper;
     }
 
 }
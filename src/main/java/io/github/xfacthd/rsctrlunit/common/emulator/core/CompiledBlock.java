@@ -0,0 +1,30 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.core;
+
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.Interpreter;
+
+/**
+ * A basic block of instructions compiled to JVM bytecode, executed by the interpreter as a single unit.
+ * Interrupts and timers are only serviced before and after a block, never within it.
+ */
+public abstract class CompiledBlock {
+    private final int instructions;
+    private final int cycles;
+
+    protected CompiledBlock(int instructions, int cycles) {
+        this.instructions = instructions;
+        this.cycles = cycles;
+    }
+
+    /**
+     * Execute all instructions of this block, leaves the program counter pointing at the next instruction to execute
+     */
+    public abstract void execute(Interpreter.InterpreterContext ctx);
+
+    public final int getInstructions() {
+        return instructions;
+    }
+
+    public final int getCycles() {
+        return cycles;
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.core;
+
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.Interpreter;
+
+/**
+ * Skips iterations of busy-wait delay loops in constant time instead of executing them instruction by instruction.
+ */
+@FunctionalInterface
+public interface DelayLoopSkipper {
+    /**
+     * Skips as many iterations as possible of the delay loop at the current program counter, applying the same
+     * changes to the counters and the program counter as executing them would. The caller is responsible for
+     * advancing the clock by the returned amount of machine cycles.
+     *
+     * @param ctx The context to operate on
+     * @param maxCycles The maximum amount of machine cycles the skipped instructions may take
+     * @param maxInstructions The maximum amount of instructions to skip
+     * @return The amount of skipped instructions and the machine cycles taken by them as packed by {@link #result(int, int)},
+     * zero if no delay loop starts at the current program counter or no iteration could be skipped
+     */
+    long skip(Interpreter.InterpreterContext ctx, int maxCycles, int maxInstructions);
+
+    static long result(int instructions, int cycles) {
+        return ((long) instructions << 32) | (cycles & 0xFFFFFFFFL);
+    }
+
+    static int instructions(long result) {
+        return (int) (result >>> 32);
+    }
+
+    static int cycles(long result) {
+        return (int) result;
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.core;
+
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.Interpreter;
+
+/**
+ * Executes a single predecoded instruction directly on the interpreter state.
+ * The program counter already points past the full instruction when this is called.
+ */
+@FunctionalInterface
+public interface InstructionExecutor {
+    /**
+     * @param ctx The context to execute the opcode on
+     * @param opcode The unsigned opcode byte
+     * @param operand1 The first operand byte following the opcode
+     * @param operand2 The second operand byte following the opcode
+     */
+    void execute(Interpreter.InterpreterContext ctx, int opcode, byte operand1, byte operand2);
+}
@@ -0,0 +1,412 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.core.i8051;
+
+import io.github.xfacthd.rsctrlunit.common.emulator.core.CompiledBlock;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.InstructionCache;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.Interpreter;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.RAM;
+import io.github.xfacthd.rsctrlunit.common.emulator.opcode.OpcodeHelpers;
+import io.github.xfacthd.rsctrlunit.common.emulator.util.Constants;
+import net.minecraft.Util;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Compiles basic blocks of 8051 code into hidden classes. Moves and increments on registers and internal RAM
+ * as well as unconditional jumps and register loops are emitted as bytecode operating directly on the RAM arrays,
+ * all other instructions are emitted as calls to the {@link I8051Executor} with constant operands.
+ * <p>
+ * Since timers and interrupts are only serviced at block boundaries, a block never contains instructions which
+ * access the timer, interrupt or power control SFRs or which return from an interrupt service routine.
+ * Such instructions end the block and are left to the interpreter.
+ */
+public final class I8051BlockCompiler
+{
+    private static final int MAX_BLOCK_INSTRUCTIONS = 64;
+    private static final boolean[] UNSAFE_SFRS = Util.make(new boolean[Constants.SFR_SIZE], arr ->
+    {
+        int[] addresses = new int[] {
+                Constants.ADDRESS_PCON, Constants.ADDRESS_TCON, Constants.ADDRESS_TMOD,
+                Constants.ADDRESS_TL0, Constants.ADDRESS_TL1, Constants.ADDRESS_TH0, Constants.ADDRESS_TH1,
+                Constants.ADDRESS_SCON, Constants.ADDRESS_SBUF, Constants.ADDRESS_IE, Constants.ADDRESS_IP
+        };
+        for (int address : addresses)
+        {
+            arr[address - Constants.SFR_START] = true;
+        }
+    });
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final String CLASS_NAME = Type.getInternalName(I8051BlockCompiler.class) + "$Block";
+    private static final String SUPER_NAME = Type.getInternalName(CompiledBlock.class);
+    private static final String CONTEXT_NAME = Type.getInternalName(Interpreter.InterpreterContext.class);
+    private static final String RAM_NAME = Type.getInternalName(RAM.class);
+    private static final String EXECUTOR_NAME = Type.getInternalName(I8051Executor.class);
+    private static final String EXECUTE_DESC = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Interpreter.InterpreterContext.class));
+    private static final String EXECUTOR_DESC = Type.getMethodDescriptor(
+            Type.VOID_TYPE, Type.getType(Interpreter.InterpreterContext.class), Type.INT_TYPE, Type.BYTE_TYPE, Type.BYTE_TYPE
+    );
+    private static final int LOCAL_CTX = 1;
+    private static final int LOCAL_IRAM = 2;
+    private static final int LOCAL_SFR = 3;
+    private static final int LOCAL_TEMP = 4;
+
+    @Nullable
+    public static CompiledBlock compile(InstructionCache cache, byte[] rom, int address)
+    {
+        int[] instructions = new int[MAX_BLOCK_INSTRUCTIONS];
+        int[] addresses = new int[MAX_BLOCK_INSTRUCTIONS];
+        int count = 0;
+        int cycles = 0;
+        int pc = address;
+        boolean terminated = false;
+        while (count < MAX_BLOCK_INSTRUCTIONS)
+        {
+            int instruction = cache.get(rom, pc);
+            int opcode = InstructionCache.opcode(instruction);
+            if (!isCompilable(opcode, InstructionCache.operand1(instruction), InstructionCache.operand2(instruction)))
+            {
+                break;
+            }
+
+            instructions[count] = instruction;
+            addresses[count] = pc;
+            count++;
+            cycles += InstructionCache.cycles(instruction);
+            pc = Math.floorMod(pc + InstructionCache.length(instruction), Constants.ROM_SIZE);
+            if (isTerminator(opcode))
+            {
+                terminated = true;
+                break;
+            }
+        }
+
+        if (count == 0)
+        {
+            return null;
+        }
+
+        byte[] bytes = generate(instructions, addresses, count, cycles, terminated ? -1 : pc);
+        try
+        {
+            MethodHandles.Lookup blockLookup = LOOKUP.defineHiddenClass(bytes, true);
+            return (CompiledBlock) blockLookup.findConstructor(blockLookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        }
+        catch (Throwable t)
+        {
+            throw new IllegalStateException("Failed to define compiled block at address " + address, t);
+        }
+    }
+
+    private static boolean isCompilable(int opcode, byte operand1, byte operand2)
+    {
+        // Returning from an ISR changes the interrupt state
+        if (opcode == 0x32)
+        {
+            return false;
+        }
+        if (I8051Operands.hasBitAddressOperand(opcode))
+        {
+            return isSafeBit(operand1);
+        }
+        return switch (I8051Operands.getDirectAddressOperands(opcode))
+        {
+            case 2 -> isSafeDirect(operand1) && isSafeDirect(operand2);
+            case 1 -> isSafeDirect(operand1);
+            default -> true;
+        };
+    }
+
+    private static boolean isSafeDirect(byte operand)
+    {
+        int address = operand & 0xFF;
+        return address < Constants.SFR_START || !UNSAFE_SFRS[address - Constants.SFR_START];
+    }
+
+    private static boolean isSafeBit(byte operand)
+    {
+        int bitAddress = operand & 0xFF;
+        return bitAddress < Constants.SFR_START || isSafeDirect((byte) (bitAddress & 0xF8));
+    }
+
+    private static boolean isTerminator(int opcode)
+    {
+        return switch (opcode)
+        {
+            case 0x01, 0x21, 0x41, 0x61, 0x81, 0xA1, 0xC1, 0xE1, // AJMP
+                 0x11, 0x31, 0x51, 0x71, 0x91, 0xB1, 0xD1, 0xF1, // ACALL
+                 0x02, 0x12, 0x22, 0x73, 0x80, // LJMP, LCALL, RET, JMP @A+DPTR, SJMP
+                 0x10, 0x20, 0x30, 0x40, 0x50, 0x60, 0x70, // Conditional jumps
+                 0xB4, 0xB5, 0xB6, 0xB7, 0xB8, 0xB9, 0xBA, 0xBB, 0xBC, 0xBD, 0xBE, 0xBF, // CJNE
+                 0xD5, 0xD8, 0xD9, 0xDA, 0xDB, 0xDC, 0xDD, 0xDE, 0xDF -> true; // DJNZ
+            default -> false;
+        };
+    }
+
+    private static byte[] generate(int[] instructions, int[] addresses, int count, int cycles, int fallthroughPc)
+    {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V21, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, CLASS_NAME, null, SUPER_NAME, null);
+
+        MethodVisitor ctor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        ctor.visitCode();
+        ctor.visitVarInsn(Opcodes.ALOAD, 0);
+        pushInt(ctor, count);
+        pushInt(ctor, cycles);
+        ctor.visitMethodInsn(Opcodes.INVOKESPECIAL, SUPER_NAME, "<init>", "(II)V", false);
+        ctor.visitInsn(Opcodes.RETURN);
+        ctor.visitMaxs(0, 0);
+        ctor.visitEnd();
+
+        MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC, "execute", EXECUTE_DESC, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, LOCAL_CTX);
+        mv.visitFieldInsn(Opcodes.GETFIELD, CONTEXT_NAME, "ram", Type.getDescriptor(RAM.class));
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, RAM_NAME, "getRamArray", "()[B", false);
+        mv.visitVarInsn(Opcodes.ASTORE, LOCAL_IRAM);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, RAM_NAME, "getRawSfrArray", "()[B", false);
+        mv.visitVarInsn(Opcodes.ASTORE, LOCAL_SFR);
+
+        for (int i = 0; i < count; i++)
+        {
+            int instruction = instructions[i];
+            int nextPc = Math.floorMod(addresses[i] + InstructionCache.length(instruction), Constants.ROM_SIZE);
+            generateInstruction(mv, instruction, nextPc);
+        }
+        if (fallthroughPc != -1)
+        {
+            setProgramCounter(mv, fallthroughPc);
+        }
+
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static void generateInstruction(MethodVisitor mv, int instruction, int nextPc)
+    {
+        int opcode = InstructionCache.opcode(instruction);
+        byte operand1 = InstructionCache.operand1(instruction);
+        byte operand2 = InstructionCache.operand2(instruction);
+        int direct1 = operand1 & 0xFF;
+        int direct2 = operand2 & 0xFF;
+        boolean internal1 = direct1 < Constants.SFR_START;
+        boolean internal2 = direct2 < Constants.SFR_START;
+
+        switch (opcode)
+        {
+            case 0x00 -> { } // NOP
+            case 0x02 -> setProgramCounter(mv, ((operand1 & 0xFF) << 8) | (operand2 & 0xFF)); // LJMP
+            case 0x01, 0x21, 0x41, 0x61, 0x81, 0xA1, 0xC1, 0xE1 -> // AJMP
+            {
+                int address = OpcodeHelpers.calculateAjmpAddress((byte) opcode, operand1);
+                setProgramCounter(mv, OpcodeHelpers.calculateAjmpTarget(nextPc, address));
+            }
+            case 0x80 -> setProgramCounter(mv, Math.floorMod(nextPc + operand1, Constants.ROM_SIZE)); // SJMP
+            case 0x78, 0x79, 0x7A, 0x7B, 0x7C, 0x7D, 0x7E, 0x7F -> // MOV Rn,#data
+            {
+                mv.visitVarInsn(Opcodes.ALOAD, LOCAL_IRAM);
+                pushRegisterAddress(mv, opcode & 0b00000111);
+                pushInt(mv, operand1);
+                mv.visitInsn(Opcodes.BASTORE);
+            }
+            case 0x08, 0x09, 0x0A, 0x0B, 0x0C, 0x0D, 0x0E, 0x0F -> // INC Rn
+            {
+                mv.visitVarInsn(Opcodes.ALOAD, LOCAL_IRAM);
+                pushRegisterAddress(mv, opcode & 0b00000111);
+                addToArrayElement(mv, 1);
+            }
+            case 0x18, 0x19, 0x1A, 0x1B, 0x1C, 0x1D, 0x1E, 0x1F -> // DEC Rn
+            {
+                mv.visitVarInsn(Opcodes.ALOAD, LOCAL_IRAM);
+                pushRegisterAddress(mv, opcode & 0b00000111);
+                addToArrayElement(mv, -1);
+            }
+            case 0x05, 0x15 -> // INC direct, DEC direct
+            {
+                if (!internal1)
+                {
+                    generateExecutorCall(mv, opcode, operand1, operand2, nextPc);
+                    return;
+                }
+                mv.visitVarInsn(Opcodes.ALOAD, LOCAL_IRAM);
+                pushInt(mv, direct1);
+                addToArrayElement(mv, opcode == 0x05 ? 1 : -1);
+            }
+            case 0x75 -> // MOV direct,#data
+            {
+                if (!internal1)
+                {
+                    generateExecutorCall(mv, opcode, operand1, operand2, nextPc);
+                    return;
+                }
+                mv.visitVarInsn(Opcodes.ALOAD, LOCAL_IRAM);
+                pushInt(mv, direct1);
+                pushInt(mv, operand2);
+                mv.visitInsn(Opcodes.BASTORE);
+            }
+            case 0x85 -> // MOV direct,direct
+            {
+                if (!internal1 || !internal2)
+                {
+                    generateExecutorCall(mv, opcode, operand1, operand2, nextPc);
+                    return;
+                }
+                mv.visitVarInsn(Opcodes.ALOAD, LOCAL_IRAM);
+                pushInt(mv, direct1);
+                mv.visitVarInsn(Opcodes.ALOAD, LOCAL_IRAM);
+                pushInt(mv, direct2);
+                mv.visitInsn(Opcodes.BALOAD);
+                mv.visitInsn(Opcodes.BASTORE);
+            }
+            case 0x88, 0x89, 0x8A, 0x8B, 0x8C, 0x8D, 0x8E, 0x8F -> // MOV direct,Rn
+            {
+                if (!internal1)
+                {
+                    generateExecutorCall(mv, opcode, operand1, operand2, nextPc);
+                    return;
+                }
+                mv.visitVarInsn(Opcodes.ALOAD, LOCAL_IRAM);
+                pushInt(mv, direct1);
+                mv.visitVarInsn(Opcodes.ALOAD, LOCAL_IRAM);
+                pushRegisterAddress(mv, opcode & 0b00000111);
+                mv.visitInsn(Opcodes.BALOAD);
+                mv.visitInsn(Opcodes.BASTORE);
+            }
+            case 0xA8, 0xA9, 0xAA, 0xAB, 0xAC, 0xAD, 0xAE, 0xAF -> // MOV Rn,direct
+            {
+                if (!internal1)
+                {
+                    generateExecutorCall(mv, opcode, operand1, operand2, nextPc);
+                    return;
+                }
+                mv.visitVarInsn(Opcodes.ALOAD, LOCAL_IRAM);
+                pushRegisterAddress(mv, opcode & 0b00000111);
+                mv.visitVarInsn(Opcodes.ALOAD, LOCAL_IRAM);
+                pushInt(mv, direct1);
+                mv.visitInsn(Opcodes.BALOAD);
+                mv.visitInsn(Opcodes.BASTORE);
+            }
+            case 0xD8, 0xD9, 0xDA, 0xDB, 0xDC, 0xDD, 0xDE, 0xDF -> // DJNZ Rn,rel
+            {
+                mv.visitVarInsn(Opcodes.ALOAD, LOCAL_IRAM);
+                pushRegisterAddress(mv, opcode & 0b00000111);
+                generateDecrementJumpNotZero(mv, nextPc, Math.floorMod(nextPc + operand1, Constants.ROM_SIZE));
+            }
+            case 0xD5 -> // DJNZ direct,rel
+            {
+                if (!internal1)
+                {
+                    generateExecutorCall(mv, opcode, operand1, operand2, nextPc);
+                    return;
+                }
+                mv.visitVarInsn(Opcodes.ALOAD, LOCAL_IRAM);
+                pushInt(mv, direct1);
+                generateDecrementJumpNotZero(mv, nextPc, Math.floorMod(nextPc + operand2, Constants.ROM_SIZE));
+            }
+            default -> generateExecutorCall(mv, opcode, operand1, operand2, nextPc);
+        }
+    }
+
+    private static void generateExecutorCall(MethodVisitor mv, int opcode, byte operand1, byte operand2, int nextPc)
+    {
+        setProgramCounter(mv, nextPc);
+        mv.visitVarInsn(Opcodes.ALOAD, LOCAL_CTX);
+        pushInt(mv, opcode);
+        pushInt(mv, operand1);
+        pushInt(mv, operand2);
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, EXECUTOR_NAME, "execute", EXECUTOR_DESC, false);
+    }
+
+    /**
+     * Expects the array and index of the counter on the stack
+     */
+    private static void generateDecrementJumpNotZero(MethodVisitor mv, int nextPc, int target)
+    {
+        mv.visitInsn(Opcodes.DUP2);
+        mv.visitInsn(Opcodes.BALOAD);
+        mv.visitInsn(Opcodes.ICONST_1);
+        mv.visitInsn(Opcodes.ISUB);
+        mv.visitInsn(Opcodes.I2B);
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitVarInsn(Opcodes.ISTORE, LOCAL_TEMP);
+        mv.visitInsn(Opcodes.BASTORE);
+
+        Label zero = new Label();
+        Label end = new Label();
+        mv.visitVarInsn(Opcodes.ILOAD, LOCAL_TEMP);
+        mv.visitJumpInsn(Opcodes.IFEQ, zero);
+        setProgramCounter(mv, target);
+        mv.visitJumpInsn(Opcodes.GOTO, end);
+        mv.visitLabel(zero);
+        setProgramCounter(mv, nextPc);
+        mv.visitLabel(end);
+    }
+
+    /**
+     * Expects the array and index of the element on the stack
+     */
+    private static void addToArrayElement(MethodVisitor mv, int value)
+    {
+        mv.visitInsn(Opcodes.DUP2);
+        mv.visitInsn(Opcodes.BALOAD);
+        pushInt(mv, value);
+        mv.visitInsn(Opcodes.IADD);
+        mv.visitInsn(Opcodes.I2B);
+        mv.visitInsn(Opcodes.BASTORE);
+    }
+
+    private static void pushRegisterAddress(MethodVisitor mv, int register)
+    {
+        mv.visitVarInsn(Opcodes.ALOAD, LOCAL_SFR);
+        pushInt(mv, Constants.ADDRESS_STATUS_WORD - Constants.SFR_START);
+        mv.visitInsn(Opcodes.BALOAD);
+        pushInt(mv, 0b00011000);
+        mv.visitInsn(Opcodes.IAND);
+        if (register != 0)
+        {
+            pushInt(mv, register);
+            mv.visitInsn(Opcodes.IOR);
+        }
+    }
+
+    private static void setProgramCounter(MethodVisitor mv, int pc)
+    {
+        mv.visitVarInsn(Opcodes.ALOAD, LOCAL_CTX);
+        pushInt(mv, pc);
+        mv.visitFieldInsn(Opcodes.PUTFIELD, CONTEXT_NAME, "programCounter", "I");
+    }
+
+    private static void pushInt(MethodVisitor mv, int value)
+    {
+        if (value >= -1 && value <= 5)
+        {
+            mv.visitInsn(Opcodes.ICONST_0 + value);
+        }
+        else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE)
+        {
+            mv.visitIntInsn(Opcodes.BIPUSH, value);
+        }
+        else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE)
+        {
+            mv.visitIntInsn(Opcodes.SIPUSH, value);
+        }
+        else
+        {
+            mv.visitLdcInsn(value);
+        }
+    }
+
+
+
+    private I8051BlockCompiler() { }
+}
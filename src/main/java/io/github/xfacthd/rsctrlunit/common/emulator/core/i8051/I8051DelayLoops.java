@@ -0,0 +1,180 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.core.i8051;
+
+import io.github.xfacthd.rsctrlunit.common.emulator.core.DelayLoopSkipper;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.Interpreter;
+import io.github.xfacthd.rsctrlunit.common.emulator.opcode.OpcodeHelpers;
+import io.github.xfacthd.rsctrlunit.common.emulator.util.Constants;
+
+/**
+ * Recognizes pure countdown loops built from {@code DJNZ} and skips them in constant time.
+ * <p>
+ * Supported are a single {@code DJNZ Rn/direct, $} as well as two nested countdowns, where the instruction following
+ * the inner loop jumps back to it, either directly or through a {@code MOV} reloading the inner counter:
+ * <pre>
+ * outer: MOV  R6, #k      ; optional
+ * inner: DJNZ R6, inner
+ *        DJNZ R7, outer
+ * </pre>
+ * Only counters in the lower internal RAM are supported as they have no side effects. The loops are skipped
+ * entirely if they fit the given limits, otherwise as many iterations of the inner loop as possible are skipped.
+ * Iterations which would let a timer overflow or a serial frame complete are left to the interpreter so that the
+ * interrupt is serviced in time.
+ */
+public final class I8051DelayLoops
+{
+    private static final int ADDRESS_MASK = Constants.ROM_SIZE - 1;
+    private static final int OPCODE_MOV_DIRECT_IMM = 0x75;
+    private static final int OPCODE_MOV_R0_IMM = 0x78;
+    private static final int OPCODE_DJNZ_DIRECT = 0xD5;
+    private static final int OPCODE_DJNZ_R0 = 0xD8;
+    private static final int OPCODE_DJNZ_R7 = 0xDF;
+    private static final int CYCLES_DJNZ = 2;
+    private static final int CYCLES_MOV_REGISTER_IMM = 1;
+    private static final int CYCLES_MOV_DIRECT_IMM = 2;
+    private static final int NO_COUNTER = -1;
+
+    public static long skip(Interpreter.InterpreterContext ctx, int maxCycles, int maxInstructions)
+    {
+        byte[] rom = ctx.rom;
+        int pc = ctx.programCounter;
+        byte psw = ctx.ram.peekStatusWord();
+        int counter = getCounterAddress(rom, pc, psw);
+        if (counter == NO_COUNTER || getJumpTarget(rom, pc) != pc)
+        {
+            return 0;
+        }
+
+        long untilEvent = ctx.getCyclesUntilEvent();
+        if (untilEvent <= maxCycles)
+        {
+            maxCycles = (int) untilEvent - 1;
+        }
+
+        long nested = skipNested(ctx, rom, pc, psw, counter, maxCycles, maxInstructions);
+        if (nested != 0)
+        {
+            return nested;
+        }
+
+        byte[] iram = ctx.ram.getRamArray();
+        int count = iram[counter] & 0xFF;
+        int skipped = Math.min(getIterations(count), Math.min(maxInstructions, maxCycles / CYCLES_DJNZ));
+        if (skipped <= 0)
+        {
+            return 0;
+        }
+        iram[counter] = (byte) (count - skipped);
+        if (iram[counter] == 0)
+        {
+            ctx.setProgramCounter(pc + getLength(rom, pc));
+        }
+        return DelayLoopSkipper.result(skipped, skipped * CYCLES_DJNZ);
+    }
+
+    private static long skipNested(Interpreter.InterpreterContext ctx, byte[] rom, int inner, byte psw, int innerCounter, int maxCycles, int maxInstructions)
+    {
+        int outer = (inner + getLength(rom, inner)) & ADDRESS_MASK;
+        int outerCounter = getCounterAddress(rom, outer, psw);
+        if (outerCounter == NO_COUNTER || outerCounter == innerCounter)
+        {
+            return 0;
+        }
+
+        byte[] iram = ctx.ram.getRamArray();
+        long innerIterations = getIterations(iram[innerCounter] & 0xFF);
+        long outerIterations = getIterations(iram[outerCounter] & 0xFF);
+        int target = getJumpTarget(rom, outer);
+
+        // Without a reload, every repetition of the inner loop after the first one starts from zero
+        long reloadCycles = 0;
+        long repeatIterations = 256;
+        int reloadAddress = getReloadAddress(rom, target, psw);
+        if (reloadAddress == innerCounter && ((target + getLength(rom, target)) & ADDRESS_MASK) == inner)
+        {
+            reloadCycles = getLength(rom, target) == 2 ? CYCLES_MOV_REGISTER_IMM : CYCLES_MOV_DIRECT_IMM;
+            repeatIterations = getIterations(rom[(target + getLength(rom, target) - 1) & ADDRESS_MASK] & 0xFF);
+        }
+        else if (target != inner)
+        {
+            return 0;
+        }
+
+        long repeatInstructions = (reloadCycles > 0 ? 1 : 0) + repeatIterations + 1;
+        long repeatCycles = reloadCycles + (repeatIterations + 1) * CYCLES_DJNZ;
+        long instructions = innerIterations + 1 + (outerIterations - 1) * repeatInstructions;
+        long cycles = (innerIterations + 1) * CYCLES_DJNZ + (outerIterations - 1) * repeatCycles;
+        if (instructions > maxInstructions || cycles > maxCycles)
+        {
+            return 0;
+        }
+
+        iram[innerCounter] = 0;
+        iram[outerCounter] = 0;
+        ctx.setProgramCounter(outer + getLength(rom, outer));
+        return DelayLoopSkipper.result((int) instructions, (int) cycles);
+    }
+
+    /**
+     * {@return the internal RAM address of the counter decremented by the DJNZ at the given address}
+     */
+    private static int getCounterAddress(byte[] rom, int address, byte psw)
+    {
+        int opcode = rom[address] & 0xFF;
+        if (opcode >= OPCODE_DJNZ_R0 && opcode <= OPCODE_DJNZ_R7)
+        {
+            return OpcodeHelpers.getRegisterAddress(psw, opcode - OPCODE_DJNZ_R0);
+        }
+        if (opcode == OPCODE_DJNZ_DIRECT)
+        {
+            return getLowerRamAddress(rom[(address + 1) & ADDRESS_MASK]);
+        }
+        return NO_COUNTER;
+    }
+
+    /**
+     * {@return the internal RAM address written by the MOV immediate at the given address}
+     */
+    private static int getReloadAddress(byte[] rom, int address, byte psw)
+    {
+        int opcode = rom[address] & 0xFF;
+        if (opcode >= OPCODE_MOV_R0_IMM && opcode < OPCODE_MOV_R0_IMM + 8)
+        {
+            return OpcodeHelpers.getRegisterAddress(psw, opcode - OPCODE_MOV_R0_IMM);
+        }
+        if (opcode == OPCODE_MOV_DIRECT_IMM)
+        {
+            return getLowerRamAddress(rom[(address + 1) & ADDRESS_MASK]);
+        }
+        return NO_COUNTER;
+    }
+
+    private static int getLowerRamAddress(byte operand)
+    {
+        int address = operand & 0xFF;
+        return address < Constants.SFR_START ? address : NO_COUNTER;
+    }
+
+    /**
+     * {@return the length of the DJNZ or MOV immediate instruction at the given address}
+     */
+    private static int getLength(byte[] rom, int address)
+    {
+        int opcode = rom[address] & 0xFF;
+        return opcode == OPCODE_DJNZ_DIRECT || opcode == OPCODE_MOV_DIRECT_IMM ? 3 : 2;
+    }
+
+    private static int getJumpTarget(byte[] rom, int address)
+    {
+        int length = getLength(rom, address);
+        return (address + length + rom[(address + length - 1) & ADDRESS_MASK]) & ADDRESS_MASK;
+    }
+
+    private static int getIterations(int count)
+    {
+        return count == 0 ? 256 : count;
+    }
+
+
+
+    private I8051DelayLoops() { }
+}
@@ -0,0 +1,397 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.core.i8051;
+
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.Interpreter;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.RAM;
+import io.github.xfacthd.rsctrlunit.common.emulator.opcode.OpcodeHelpers;
+import io.github.xfacthd.rsctrlunit.common.emulator.util.BitWriteMode;
+import io.github.xfacthd.rsctrlunit.common.emulator.util.Constants;
+
+/**
+ * Switch-dispatched execution engine for the 8051 core. Executes predecoded instructions with a dense switch
+ * over the unsigned opcode byte instead of going through the {@link I8051Opcode} function table.
+ * Every case must behave exactly like the function of the {@link I8051Opcode} with the same ordinal.
+ */
+public final class I8051Executor
+{
+    /**
+     * Execute the given opcode, expects the program counter to already point past the full instruction
+     *
+     * @param ctx The context to execute the opcode on
+     * @param opcode The unsigned opcode byte
+     * @param operand1 The first operand byte following the opcode, undefined if the opcode has no operands
+     * @param operand2 The second operand byte following the opcode, undefined if the opcode has less than two operand bytes
+     */
+    public static void execute(Interpreter.InterpreterContext ctx, int opcode, byte operand1, byte operand2)
+    {
+        RAM ram = ctx.ram;
+        switch (opcode)
+        {
+            case 0x00, 0xA5 -> { } // NOP, RESERVED
+            case 0x01, 0x21, 0x41, 0x61, 0x81, 0xA1, 0xC1, 0xE1 -> // AJMP
+            {
+                int address = OpcodeHelpers.calculateAjmpAddress((byte) opcode, operand1);
+                ctx.setProgramCounter(OpcodeHelpers.calculateAjmpTarget(ctx.programCounter, address));
+            }
+            case 0x11, 0x31, 0x51, 0x71, 0x91, 0xB1, 0xD1, 0xF1 -> // ACALL
+            {
+                int address = OpcodeHelpers.calculateAjmpAddress((byte) opcode, operand1);
+                ctx.pushStateBeforeCall();
+                ctx.setProgramCounter(OpcodeHelpers.calculateAjmpTarget(ctx.programCounter, address));
+            }
+            case 0x02 -> // LJMP
+            {
+                int upper = operand1 & 0xFF;
+                int lower = operand2 & 0xFF;
+                ctx.setProgramCounter((upper << 8) | lower);
+            }
+            case 0x12 -> // LCALL
+            {
+                int upper = operand1 & 0xFF;
+                int lower = operand2 & 0xFF;
+                ctx.pushStateBeforeCall();
+                ctx.setProgramCounter((upper << 8) | lower);
+            }
+            case 0x22, 0x32 -> // RET, RETI
+            {
+                int upper = ctx.popStack() & 0xFF;
+                int lower = ctx.popStack() & 0xFF;
+                ctx.setProgramCounter((upper << 8) | lower);
+                if (opcode == 0x32)
+                {
+                    ctx.interrupts.returnFromIsr();
+                }
+            }
+            case 0x03 -> // RR A
+            {
+                int value = ram.read(Constants.ADDRESS_ACCUMULATOR);
+                ram.write(Constants.ADDRESS_ACCUMULATOR, ((value << 7) & 0b10000000) | (value >> 1));
+            }
+            case 0x13 -> // RRC A
+            {
+                int value = ram.read(Constants.ADDRESS_ACCUMULATOR);
+                int newMsb = ram.readBit(Constants.BIT_ADDRESS_CARRY) ? 0b10000000 : 0;
+                ram.writeBit(Constants.BIT_ADDRESS_CARRY, BitWriteMode.of((value & 0x1) != 0));
+                ram.write(Constants.ADDRESS_ACCUMULATOR, newMsb | (value >> 1));
+            }
+            case 0x23 -> // RL A
+            {
+                int value = ram.read(Constants.ADDRESS_ACCUMULATOR);
+                ram.write(Constants.ADDRESS_ACCUMULATOR, ((value >> 7) & 0x1) | (value << 1));
+            }
+            case 0x33 -> // RLC A
+            {
+                int value = ram.read(Constants.ADDRESS_ACCUMULATOR);
+                int newLsb = ram.readBit(Constants.BIT_ADDRESS_CARRY) ? 0x1 : 0;
+                ram.writeBit(Constants.BIT_ADDRESS_CARRY, BitWriteMode.of((value & 0b10000000) != 0));
+                ram.write(Constants.ADDRESS_ACCUMULATOR, newLsb | (value << 1));
+            }
+            case 0x04 -> ram.write(Constants.ADDRESS_ACCUMULATOR, ram.read(Constants.ADDRESS_ACCUMULATOR) + 1);
+            case 0x05 -> addMemory(ram, operand1, 1);
+            case 0x06, 0x07 -> addRegisterIndirect(ram, opcode & 0x1, 1);
+            case 0x08, 0x09, 0x0A, 0x0B, 0x0C, 0x0D, 0x0E, 0x0F -> addRegister(ram, opcode & 0b00000111, 1);
+            case 0x14 -> ram.write(Constants.ADDRESS_ACCUMULATOR, ram.read(Constants.ADDRESS_ACCUMULATOR) - 1);
+            case 0x15 -> addMemory(ram, operand1, -1);
+            case 0x16, 0x17 -> addRegisterIndirect(ram, opcode & 0x1, -1);
+            case 0x18, 0x19, 0x1A, 0x1B, 0x1C, 0x1D, 0x1E, 0x1F -> addRegister(ram, opcode & 0b00000111, -1);
+            case 0x10 -> // JBC
+            {
+                byte bitAddress = operand1;
+                int offset = operand2;
+                if (ram.readBit(bitAddress, true))
+                {
+                    ram.writeBit(bitAddress, BitWriteMode.CLEAR);
+                    ctx.setProgramCounter(ctx.programCounter + offset);
+                }
+            }
+            case 0x20, 0x30 -> // JB, JNB
+            {
+                byte bitAddress = operand1;
+                int offset = operand2;
+                if (ram.readBit(bitAddress) == (opcode == 0x20))
+                {
+                    ctx.setProgramCounter(ctx.programCounter + offset);
+                }
+            }
+            case 0x40, 0x50 -> // JC, JNC
+            {
+                int offset = operand1;
+                if (ram.readBit(Constants.BIT_ADDRESS_CARRY) == (opcode == 0x40))
+                {
+                    ctx.setProgramCounter(ctx.programCounter + offset);
+                }
+            }
+            case 0x60, 0x70 -> // JZ, JNZ
+            {
+                int offset = operand1;
+                if ((ram.read(Constants.ADDRESS_ACCUMULATOR) == 0) == (opcode == 0x60))
+                {
+                    ctx.setProgramCounter(ctx.programCounter + offset);
+                }
+            }
+            case 0x24 -> OpcodeHelpers.add(ram, operand1, 0);
+            case 0x25 -> OpcodeHelpers.add(ram, ram.readByte(operand1 & 0xFF), 0);
+            case 0x26, 0x27 -> OpcodeHelpers.add(ram, OpcodeHelpers.readRegisterIndirect(ram, opcode & 0x1), 0);
+            case 0x28, 0x29, 0x2A, 0x2B, 0x2C, 0x2D, 0x2E, 0x2F -> OpcodeHelpers.add(ram, OpcodeHelpers.readRegisterDirect(ram, opcode & 0b00000111), 0);
+            case 0x34 -> OpcodeHelpers.addc(ram, operand1);
+            case 0x35 -> OpcodeHelpers.addc(ram, ram.readByte(operand1 & 0xFF));
+            case 0x36, 0x37 -> OpcodeHelpers.addc(ram, OpcodeHelpers.readRegisterIndirect(ram, opcode & 0x1));
+            case 0x38, 0x39, 0x3A, 0x3B, 0x3C, 0x3D, 0x3E, 0x3F -> OpcodeHelpers.addc(ram, OpcodeHelpers.readRegisterDirect(ram, opcode & 0b00000111));
+            case 0x94 -> OpcodeHelpers.subb(ram, operand1);
+            case 0x95 -> OpcodeHelpers.subb(ram, ram.readByte(operand1 & 0xFF));
+            case 0x96, 0x97 -> OpcodeHelpers.subb(ram, OpcodeHelpers.readRegisterIndirect(ram, opcode & 0x1));
+            case 0x98, 0x99, 0x9A, 0x9B, 0x9C, 0x9D, 0x9E, 0x9F -> OpcodeHelpers.subb(ram, OpcodeHelpers.readRegisterDirect(ram, opcode & 0b00000111));
+            case 0x42 -> OpcodeHelpers.orMem(ram, operand1 & 0xFF, ram.readByte(Constants.ADDRESS_ACCUMULATOR));
+            case 0x43 -> OpcodeHelpers.orMem(ram, operand1 & 0xFF, operand2);
+            case 0x44 -> OpcodeHelpers.orAcc(ram, operand1);
+            case 0x45 -> OpcodeHelpers.orAcc(ram, ram.readByte(operand1 & 0xFF));
+            case 0x46, 0x47 -> OpcodeHelpers.orAcc(ram, OpcodeHelpers.readRegisterIndirect(ram, opcode & 0x1));
+            case 0x48, 0x49, 0x4A, 0x4B, 0x4C, 0x4D, 0x4E, 0x4F -> OpcodeHelpers.orAcc(ram, OpcodeHelpers.readRegisterDirect(ram, opcode & 0b00000111));
+            case 0x52 -> OpcodeHelpers.andMem(ram, operand1 & 0xFF, ram.readByte(Constants.ADDRESS_ACCUMULATOR));
+            case 0x53 -> OpcodeHelpers.andMem(ram, operand1 & 0xFF, operand2);
+            case 0x54 -> OpcodeHelpers.andAcc(ram, operand1);
+            case 0x55 -> OpcodeHelpers.andAcc(ram, ram.readByte(operand1 & 0xFF));
+            case 0x56, 0x57 -> OpcodeHelpers.andAcc(ram, OpcodeHelpers.readRegisterIndirect(ram, opcode & 0x1));
+            case 0x58, 0x59, 0x5A, 0x5B, 0x5C, 0x5D, 0x5E, 0x5F -> OpcodeHelpers.andAcc(ram, OpcodeHelpers.readRegisterDirect(ram, opcode & 0b00000111));
+            case 0x62 -> OpcodeHelpers.xorMem(ram, operand1 & 0xFF, ram.readByte(Constants.ADDRESS_ACCUMULATOR));
+            case 0x63 -> OpcodeHelpers.xorMem(ram, operand1 & 0xFF, operand2);
+            case 0x64 -> OpcodeHelpers.xorAcc(ram, operand1);
+            case 0x65 -> OpcodeHelpers.xorAcc(ram, ram.readByte(operand1 & 0xFF));
+            case 0x66, 0x67 -> OpcodeHelpers.xorAcc(ram, OpcodeHelpers.readRegisterIndirect(ram, opcode & 0x1));
+            case 0x68, 0x69, 0x6A, 0x6B, 0x6C, 0x6D, 0x6E, 0x6F -> OpcodeHelpers.xorAcc(ram, OpcodeHelpers.readRegisterDirect(ram, opcode & 0b00000111));
+            case 0x72, 0x82, 0xA0, 0xB0 -> // ORL C,bit / ANL C,bit / ORL C,/bit / ANL C,/bit
+            {
+                boolean bit = ram.readBit(operand1 & 0xFF);
+                boolean carry = ram.readBit(Constants.BIT_ADDRESS_CARRY);
+                boolean result = switch (opcode)
+                {
+                    case 0x72 -> bit || carry;
+                    case 0x82 -> bit && carry;
+                    case 0xA0 -> !bit || carry;
+                    default -> !bit && carry;
+                };
+                ram.writeBit(Constants.BIT_ADDRESS_CARRY, BitWriteMode.of(result));
+            }
+            case 0x73 -> // JMP @A+DPTR
+            {
+                int dptr = OpcodeHelpers.readDataPointer(ram);
+                int acc = ram.read(Constants.ADDRESS_ACCUMULATOR);
+                ctx.setProgramCounter(dptr + acc);
+            }
+            case 0x74 -> ram.writeByte(Constants.ADDRESS_ACCUMULATOR, operand1);
+            case 0x75 -> ram.writeByte(operand1 & 0xFF, operand2);
+            case 0x76, 0x77 -> OpcodeHelpers.writeRegisterIndirect(ram, opcode & 0x1, operand1);
+            case 0x78, 0x79, 0x7A, 0x7B, 0x7C, 0x7D, 0x7E, 0x7F -> OpcodeHelpers.writeRegisterDirect(ram, opcode & 0b00000111, operand1);
+            case 0x80 -> // SJMP
+            {
+                int offset = operand1;
+                ctx.setProgramCounter(ctx.programCounter + offset);
+            }
+            case 0x83 -> // MOVC A,@A+PC
+            {
+                int address = (ram.read(Constants.ADDRESS_ACCUMULATOR) + ctx.programCounter) % Constants.ROM_SIZE;
+                ram.writeByte(Constants.ADDRESS_ACCUMULATOR, ctx.rom[address]);
+            }
+            case 0x93 -> // MOVC A,@A+DPTR
+            {
+                int address = (ram.read(Constants.ADDRESS_ACCUMULATOR) + OpcodeHelpers.readDataPointer(ram)) % Constants.ROM_SIZE;
+                ram.writeByte(Constants.ADDRESS_ACCUMULATOR, ctx.rom[address]);
+            }
+            case 0x84 -> // DIV AB
+            {
+                ram.writeBit(Constants.BIT_ADDRESS_CARRY, BitWriteMode.CLEAR);
+
+                int acc = ram.read(Constants.ADDRESS_ACCUMULATOR);
+                int b = ram.read(Constants.ADDRESS_REGISTER_B);
+                if (b > 0)
+                {
+                    ram.write(Constants.ADDRESS_ACCUMULATOR, acc / b);
+                    ram.write(Constants.ADDRESS_REGISTER_B, acc % b);
+                    ram.writeBit(Constants.BIT_ADDRESS_OVERFLOW, BitWriteMode.CLEAR);
+                }
+                else
+                {
+                    ram.writeBit(Constants.BIT_ADDRESS_OVERFLOW, BitWriteMode.SET);
+                }
+            }
+            case 0xA4 -> // MUL AB
+            {
+                int result = ram.read(Constants.ADDRESS_ACCUMULATOR) * ram.read(Constants.ADDRESS_REGISTER_B);
+                ram.writeBit(Constants.BIT_ADDRESS_OVERFLOW, BitWriteMode.of(result > 255));
+                ram.writeBit(Constants.BIT_ADDRESS_CARRY, BitWriteMode.CLEAR);
+                ram.write(Constants.ADDRESS_ACCUMULATOR, result);
+                ram.write(Constants.ADDRESS_REGISTER_B, result >> 8);
+            }
+            case 0x85 -> // MOV direct,direct
+            {
+                int destAddr = operand1 & 0xFF;
+                int srcAddr = operand2 & 0xFF;
+                ram.writeByte(destAddr, ram.readByte(srcAddr));
+            }
+            case 0x86, 0x87 -> ram.writeByte(operand1 & 0xFF, OpcodeHelpers.readRegisterIndirect(ram, opcode & 0x1));
+            case 0x88, 0x89, 0x8A, 0x8B, 0x8C, 0x8D, 0x8E, 0x8F -> ram.writeByte(operand1 & 0xFF, OpcodeHelpers.readRegisterDirect(ram, opcode & 0b00000111));
+            case 0x90 -> // MOV DPTR,#data16
+            {
+                ram.writeByte(Constants.ADDRESS_DATA_POINTER_UPPER, operand1);
+                ram.writeByte(Constants.ADDRESS_DATA_POINTER_LOWER, operand2);
+            }
+            case 0x92 -> // MOV bit,C
+            {
+                boolean carry = ram.readBit(Constants.BIT_ADDRESS_CARRY);
+                ram.writeBit(operand1, BitWriteMode.of(carry));
+            }
+            case 0xA2 -> ram.writeBit(Constants.BIT_ADDRESS_CARRY, BitWriteMode.of(ram.readBit(operand1)));
+            case 0xA3 -> OpcodeHelpers.writeDataPointer(ram, OpcodeHelpers.readDataPointer(ram) + 1);
+            case 0xA6, 0xA7 -> OpcodeHelpers.writeRegisterIndirect(ram, opcode & 0x1, ram.readByte(operand1 & 0xFF));
+            case 0xA8, 0xA9, 0xAA, 0xAB, 0xAC, 0xAD, 0xAE, 0xAF -> OpcodeHelpers.writeRegisterDirect(ram, opcode & 0b00000111, ram.readByte(operand1 & 0xFF));
+            case 0xB2 -> ram.writeBit(operand1 & 0xFF, BitWriteMode.COMPLEMENT);
+            case 0xB3 -> ram.writeBit(Constants.BIT_ADDRESS_CARRY, BitWriteMode.COMPLEMENT);
+            case 0xC2 -> ram.writeBit(operand1 & 0xFF, BitWriteMode.CLEAR);
+            case 0xC3 -> ram.writeBit(Constants.BIT_ADDRESS_CARRY, BitWriteMode.CLEAR);
+            case 0xD2 -> ram.writeBit(operand1 & 0xFF, BitWriteMode.SET);
+            case 0xD3 -> ram.writeBit(Constants.BIT_ADDRESS_CARRY, BitWriteMode.SET);
+            case 0xB4 -> // CJNE A,#data,rel
+            {
+                byte left = ram.readByte(Constants.ADDRESS_ACCUMULATOR);
+                OpcodeHelpers.compareJumpNotEqual(ctx, ram, left, operand1, operand2);
+            }
+            case 0xB5 -> // CJNE A,direct,rel
+            {
+                int address = operand1 & 0xFF;
+                int offset = operand2;
+                byte left = ram.readByte(Constants.ADDRESS_ACCUMULATOR);
+                OpcodeHelpers.compareJumpNotEqual(ctx, ram, left, ram.readByte(address), offset);
+            }
+            case 0xB6, 0xB7 -> // CJNE @Ri,#data,rel
+            {
+                byte left = OpcodeHelpers.readRegisterIndirect(ram, opcode & 0x1);
+                OpcodeHelpers.compareJumpNotEqual(ctx, ram, left, operand1, operand2);
+            }
+            case 0xB8, 0xB9, 0xBA, 0xBB, 0xBC, 0xBD, 0xBE, 0xBF -> // CJNE Rn,#data,rel
+            {
+                byte left = OpcodeHelpers.readRegisterDirect(ram, opcode & 0b00000111);
+                OpcodeHelpers.compareJumpNotEqual(ctx, ram, left, operand1, operand2);
+            }
+            case 0xC0 -> ctx.pushStack(ram.readByte(operand1 & 0xFF));
+            case 0xD0 -> ram.writeByte(operand1 & 0xFF, ctx.popStack());
+            case 0xC4 -> // SWAP A
+            {
+                int value = ram.read(Constants.ADDRESS_ACCUMULATOR);
+                ram.write(Constants.ADDRESS_ACCUMULATOR, ((value & 0xF0) >> 4) | ((value & 0x0F) << 4));
+            }
+            case 0xC5 -> // XCH A,direct
+            {
+                int value = ram.read(Constants.ADDRESS_ACCUMULATOR);
+                int address = operand1 & 0xFF;
+                int ramValue = ram.read(address);
+                ram.write(address, value);
+                ram.write(Constants.ADDRESS_ACCUMULATOR, ramValue);
+            }
+            case 0xC6, 0xC7 -> // XCH A,@Ri
+            {
+                int value = ram.read(Constants.ADDRESS_ACCUMULATOR);
+                byte regValue = OpcodeHelpers.readRegisterIndirect(ram, opcode & 0x1);
+                OpcodeHelpers.writeRegisterIndirect(ram, opcode & 0x1, (byte) value);
+                ram.write(Constants.ADDRESS_ACCUMULATOR, regValue);
+            }
+            case 0xC8, 0xC9, 0xCA, 0xCB, 0xCC, 0xCD, 0xCE, 0xCF -> // XCH A,Rn
+            {
+                int value = ram.read(Constants.ADDRESS_ACCUMULATOR);
+                byte regValue = OpcodeHelpers.readRegisterDirect(ram, opcode & 0b00000111);
+                OpcodeHelpers.writeRegisterDirect(ram, opcode & 0b00000111, (byte) value);
+                ram.write(Constants.ADDRESS_ACCUMULATOR, regValue);
+            }
+            case 0xD6, 0xD7 -> // XCHD A,@Ri
+            {
+                int value = ram.read(Constants.ADDRESS_ACCUMULATOR);
+                byte regValue = OpcodeHelpers.readRegisterIndirect(ram, opcode & 0x1);
+                OpcodeHelpers.writeRegisterIndirect(ram, opcode & 0x1, (byte) ((regValue & 0xF0) | (value & 0x0F)));
+                ram.write(Constants.ADDRESS_ACCUMULATOR, (value & 0xF0) | (regValue & 0x0F));
+            }
+            case 0xD4 -> // DA A
+            {
+                int value = ram.read(Constants.ADDRESS_ACCUMULATOR);
+                if ((value & 0x0F) > 9 || ram.readBit(Constants.BIT_ADDRESS_AUX_CARRY))
+                {
+                    value += 0x06;
+                    if (value > 255)
+                    {
+                        value -= 256;
+                        ram.writeBit(Constants.BIT_ADDRESS_CARRY, BitWriteMode.SET);
+                    }
+                }
+                if (((value >> 4) & 0x0F) > 9 || ram.readBit(Constants.BIT_ADDRESS_CARRY))
+                {
+                    value += 0x60;
+                    if (value > 255)
+                    {
+                        value -= 256;
+                        ram.writeBit(Constants.BIT_ADDRESS_CARRY, BitWriteMode.SET);
+                    }
+                }
+                ram.write(Constants.ADDRESS_ACCUMULATOR, value);
+            }
+            case 0xD5 -> // DJNZ direct,rel
+            {
+                int address = operand1 & 0xFF;
+                byte result = OpcodeHelpers.decrementJumpNotZero(ctx, ram.readByte(address), operand2);
+                ram.writeByte(address, result);
+            }
+            case 0xD8, 0xD9, 0xDA, 0xDB, 0xDC, 0xDD, 0xDE, 0xDF -> // DJNZ Rn,rel
+            {
+                int register = opcode & 0b00000111;
+                byte value = OpcodeHelpers.readRegisterDirect(ram, register);
+                byte result = OpcodeHelpers.decrementJumpNotZero(ctx, value, operand1);
+                OpcodeHelpers.writeRegisterDirect(ram, register, result);
+            }
+            case 0xE0 -> // MOVX A,@DPTR
+            {
+                int addr = OpcodeHelpers.readDataPointer(ram);
+                ram.writeByte(Constants.ADDRESS_ACCUMULATOR, ctx.extRam.read(addr));
+            }
+            case 0xE2, 0xE3 -> ram.writeByte(Constants.ADDRESS_ACCUMULATOR, ctx.extRam.read(externalRegisterAddress(ram, opcode)));
+            case 0xF0 -> // MOVX @DPTR,A
+            {
+                int addr = OpcodeHelpers.readDataPointer(ram);
+                ctx.extRam.write(addr, ram.readByte(Constants.ADDRESS_ACCUMULATOR));
+            }
+            case 0xF2, 0xF3 -> ctx.extRam.write(externalRegisterAddress(ram, opcode), ram.readByte(Constants.ADDRESS_ACCUMULATOR));
+            case 0xE4 -> ram.write(Constants.ADDRESS_ACCUMULATOR, 0);
+            case 0xE5 -> ram.writeByte(Constants.ADDRESS_ACCUMULATOR, ram.readByte(operand1 & 0xFF));
+            case 0xE6, 0xE7 -> ram.writeByte(Constants.ADDRESS_ACCUMULATOR, OpcodeHelpers.readRegisterIndirect(ram, opcode & 0x1));
+            case 0xE8, 0xE9, 0xEA, 0xEB, 0xEC, 0xED, 0xEE, 0xEF -> ram.writeByte(Constants.ADDRESS_ACCUMULATOR, OpcodeHelpers.readRegisterDirect(ram, opcode & 0b00000111));
+            case 0xF4 -> ram.write(Constants.ADDRESS_ACCUMULATOR, ~ram.read(Constants.ADDRESS_ACCUMULATOR));
+            case 0xF5 -> ram.writeByte(operand1 & 0xFF, ram.readByte(Constants.ADDRESS_ACCUMULATOR));
+            case 0xF6, 0xF7 -> OpcodeHelpers.writeRegisterIndirect(ram, opcode & 0x1, ram.readByte(Constants.ADDRESS_ACCUMULATOR));
+            case 0xF8, 0xF9, 0xFA, 0xFB, 0xFC, 0xFD, 0xFE, 0xFF -> OpcodeHelpers.writeRegisterDirect(ram, opcode & 0b00000111, ram.readByte(Constants.ADDRESS_ACCUMULATOR));
+            default -> throw new IllegalArgumentException("Invalid opcode: " + opcode);
+        }
+    }
+
+    private static void addMemory(RAM ram, int address, int delta)
+    {
+        address &= 0xFF;
+        ram.write(address, ram.read(address) + delta);
+    }
+
+    private static void addRegister(RAM ram, int register, int delta)
+    {
+        int value = OpcodeHelpers.readRegisterDirect(ram, register) & 0xFF;
+        OpcodeHelpers.writeRegisterDirect(ram, register, (byte) ((value + delta) & 0xFF));
+    }
+
+    private static void addRegisterIndirect(RAM ram, int register, int delta)
+    {
+        int value = OpcodeHelpers.readRegisterIndirect(ram, register) & 0xFF;
+        OpcodeHelpers.writeRegisterIndirect(ram, register, (byte) ((value + delta) & 0xFF));
+    }
+
+    private static int externalRegisterAddress(RAM ram, int opcode)
+    {
+        int addr = OpcodeHelpers.readRegisterDirect(ram, opcode & 0b00000001) & 0xFF;
+        return addr | (ram.read(Constants.ADDRESS_IO_PORT2) << 8);
+    }
+
+
+
+    private I8051Executor() { }
+}
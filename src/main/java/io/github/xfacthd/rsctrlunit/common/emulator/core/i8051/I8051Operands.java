@@ -0,0 +1,47 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.core.i8051;
+
+/**
+ * Classifies the operand bytes of 8051 opcodes by the kind of address they hold
+ */
+public final class I8051Operands
+{
+    /**
+     * {@return the amount of leading operand bytes of the given opcode holding a direct address}
+     */
+    public static int getDirectAddressOperands(int opcode)
+    {
+        return switch (opcode)
+        {
+            case 0x85 -> 2;
+            case 0x05, 0x15, 0x25, 0x35, 0x42, 0x43, 0x45, 0x52, 0x53, 0x55, 0x62, 0x63, 0x65, 0x75, 0x95,
+                 0x86, 0x87, 0x88, 0x89, 0x8A, 0x8B, 0x8C, 0x8D, 0x8E, 0x8F,
+                 0xA6, 0xA7, 0xA8, 0xA9, 0xAA, 0xAB, 0xAC, 0xAD, 0xAE, 0xAF,
+                 0xB5, 0xC0, 0xC5, 0xD0, 0xD5, 0xE5, 0xF5 -> 1;
+            default -> 0;
+        };
+    }
+
+    /**
+     * {@return whether the first operand byte of the given opcode holds a bit address}
+     */
+    public static boolean hasBitAddressOperand(int opcode)
+    {
+        return switch (opcode)
+        {
+            case 0x10, 0x20, 0x30, 0x72, 0x82, 0x92, 0xA0, 0xA2, 0xB0, 0xB2, 0xC2, 0xD2 -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * {@return whether the given opcode writes to the external RAM}
+     */
+    public static boolean writesExternalRam(int opcode)
+    {
+        return opcode == 0xF0 || opcode == 0xF2 || opcode == 0xF3;
+    }
+
+
+
+    private I8051Operands() { }
+}
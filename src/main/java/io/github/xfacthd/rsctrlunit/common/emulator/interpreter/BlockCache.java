@@ -0,0 +1,141 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
+
+import io.github.xfacthd.rsctrlunit.RedstoneControllerUnit;
+import io.github.xfacthd.rsctrlunit.common.emulator.core.CPUCore;
+import io.github.xfacthd.rsctrlunit.common.emulator.core.CompiledBlock;
+import io.github.xfacthd.rsctrlunit.common.emulator.util.Constants;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Counts how often execution reaches each address of the loaded program and holds the blocks compiled
+ * for addresses which became hot. The compiled blocks are shared by all interpreters running the same
+ * {@link RomImage} on the same core, only the hotness counters are kept per interpreter. A block compiled
+ * by any of them is picked up by the others on their next lookup of its address. The profiling data is only
+ * allocated once the first block lookup happens.
+ * <p>
+ * The cache must be rebuilt or invalidated together with the {@link InstructionCache}.
+ */
+public final class BlockCache
+{
+    public static final int DEFAULT_COMPILE_THRESHOLD = 1000;
+    private static final int[] EMPTY_COUNTERS = new int[0];
+    private static final CompiledBlock[] EMPTY_BLOCKS = new CompiledBlock[0];
+    private static final int NOT_COMPILABLE = -1;
+
+    private final CPUCore core;
+    @Nullable
+    private RomImage image = null;
+    private int length = 0;
+    private int[] counters = EMPTY_COUNTERS;
+    // Blocks already taken from the shared table, avoids a volatile read for every lookup of a hot block
+    private CompiledBlock[] blocks = EMPTY_BLOCKS;
+    @Nullable
+    private AtomicReferenceArray<CompiledBlock> sharedBlocks = null;
+    private int compileThreshold = DEFAULT_COMPILE_THRESHOLD;
+    private boolean loggedFailure = false;
+
+    public BlockCache(CPUCore core)
+    {
+        this.core = core;
+    }
+
+    public void rebuild(RomImage image)
+    {
+        this.image = image;
+        this.length = core.compiler != null ? Math.min(image.getProgramLength(), Constants.ROM_SIZE) : 0;
+        this.counters = EMPTY_COUNTERS;
+        this.blocks = EMPTY_BLOCKS;
+        this.sharedBlocks = null;
+    }
+
+    public void invalidate()
+    {
+        this.image = null;
+        this.length = 0;
+        this.counters = EMPTY_COUNTERS;
+        this.blocks = EMPTY_BLOCKS;
+        this.sharedBlocks = null;
+    }
+
+    /**
+     * {@return the compiled block starting at the given address or null if there is none yet}
+     * Compiles the block if the address became hot with this lookup
+     */
+    @Nullable
+    public CompiledBlock get(InstructionCache cache, byte[] rom, int address)
+    {
+        if (address >= length)
+        {
+            return null;
+        }
+        if (sharedBlocks == null)
+        {
+            counters = new int[length];
+            blocks = new CompiledBlock[length];
+            sharedBlocks = Objects.requireNonNull(image).getCompiledBlocks(core);
+        }
+
+        CompiledBlock block = blocks[address];
+        if (block != null)
+        {
+            return block;
+        }
+
+        int count = counters[address];
+        if (count == NOT_COMPILABLE)
+        {
+            return null;
+        }
+        block = sharedBlocks.get(address);
+        if (block != null)
+        {
+            blocks[address] = block;
+            return block;
+        }
+        if (++count < compileThreshold)
+        {
+            counters[address] = count;
+            return null;
+        }
+
+        try
+        {
+            block = core.compiler.compile(cache, rom, address);
+        }
+        catch (RuntimeException | LinkageError e)
+        {
+            if (!loggedFailure)
+            {
+                loggedFailure = true;
+                RedstoneControllerUnit.LOGGER.error("Failed to compile block at address 0x{}", Integer.toHexString(address), e);
+            }
+            block = null;
+        }
+
+        if (block == null)
+        {
+            counters[address] = NOT_COMPILABLE;
+            return null;
+        }
+        // Another interpreter may have compiled the same block in the meantime, all of them must use the same one
+        if (!sharedBlocks.compareAndSet(address, null, block))
+        {
+            block = sharedBlocks.get(address);
+        }
+        blocks[address] = block;
+        return block;
+    }
+
+    public void setCompileThreshold(int compileThreshold)
+    {
+        this.compileThreshold = Math.max(compileThreshold, 1);
+    }
+
+    public int getCompileThreshold()
+    {
+        return compileThreshold;
+    }
+}
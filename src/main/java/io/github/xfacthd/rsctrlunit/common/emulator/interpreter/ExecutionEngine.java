@@ -0,0 +1,21 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
+
+public enum ExecutionEngine
+{
+    /**
+     * Looks up the {@link io.github.xfacthd.rsctrlunit.common.emulator.opcode.Opcode} of each instruction
+     * and executes its function
+     */
+    OPCODE_TABLE,
+    /**
+     * Executes instructions through the switch-dispatched executor of the CPU core if it provides one,
+     * falls back to {@link #OPCODE_TABLE} otherwise
+     */
+    SWITCH,
+    /**
+     * Executes instructions like {@link #SWITCH} while profiling the program and compiles hot basic blocks
+     * to JVM bytecode if the CPU core provides a block compiler. Interrupts and timers are only serviced
+     * at the boundaries of compiled blocks
+     */
+    JIT
+}
@@ -0,0 +1,199 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
+
+import io.github.xfacthd.rsctrlunit.common.config.ServerConfig;
+import net.minecraft.server.MinecraftServer;
+
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the combined instruction rate of all interpreters to a server-wide budget, which is shared between the
+ * interpreters currently executing instructions, weighted by their effective oscillator frequency.
+ * <p>
+ * While the average tick time of the server exceeds the configured target and the time spent executing interpreters
+ * accounts for a large enough part of the overshoot, the budget is lowered step by step below the rate the
+ * interpreters actually execute at. Once the tick time dropped far enough below the target, the budget is raised
+ * again step by step until it reaches the configured budget.
+ */
+public final class ExecutionGovernor
+{
+    private static final double THROTTLE_FACTOR = .9D;
+    private static final double RECOVER_FACTOR = 1.05D;
+    // Tick time relative to the target below which the budget gets raised again
+    private static final double RECOVER_THRESHOLD = .8D;
+    // Share of the tick time overshoot the interpreters must account for before they get throttled
+    private static final double CAUSE_SHARE = .5D;
+    private static final double MIN_BUDGET = 10_000D;
+    private static final double RATE_SMOOTHING = .1D;
+    // Allows an interpreter to save up its share for at most this long while it doesn't run
+    private static final double MAX_BURST_SECONDS = .05D;
+    private static final int TICKS_PER_SECOND = 20;
+    private static final double NANOS_PER_SECOND = 1_000_000_000D;
+    private static final double NANOS_PER_MILLI = 1_000_000D;
+
+    private static final LongAdder EXECUTED = new LongAdder();
+    private static double throttledBudget = Double.POSITIVE_INFINITY;
+    private static volatile double effectiveBudget = Double.POSITIVE_INFINITY;
+    private static volatile double instructionsPerHertz = Double.POSITIVE_INFINITY;
+    private static volatile double executedPerSecond = 0D;
+    private static volatile double averageTickMillis = 0D;
+    private static volatile double averageInterpreterMillis = 0D;
+
+    /**
+     * Recompute the budget from the tick time of the server, must be called once per tick
+     *
+     * @param runnableFrequency The combined effective oscillator frequency of all interpreters currently executing
+     * @param interpreterNanos The time the interpreters occupied the server during the last tick
+     */
+    static void update(MinecraftServer server, long runnableFrequency, long interpreterNanos)
+    {
+        double tickMillis = server.getAverageTickTimeNanos() / NANOS_PER_MILLI;
+        double executedRate = EXECUTED.sumThenReset() * TICKS_PER_SECOND;
+        double smoothedRate = executedPerSecond + (executedRate - executedPerSecond) * RATE_SMOOTHING;
+        double interpreterMillis = averageInterpreterMillis + (interpreterNanos / NANOS_PER_MILLI - averageInterpreterMillis) * RATE_SMOOTHING;
+        averageTickMillis = tickMillis;
+        executedPerSecond = smoothedRate;
+        averageInterpreterMillis = interpreterMillis;
+
+        int target = ServerConfig.targetTickMillis;
+        if (shouldThrottle(tickMillis, target, interpreterMillis))
+        {
+            throttledBudget = Math.max(Math.min(throttledBudget, smoothedRate) * THROTTLE_FACTOR, MIN_BUDGET);
+        }
+        else if (tickMillis < target * RECOVER_THRESHOLD && throttledBudget != Double.POSITIVE_INFINITY)
+        {
+            throttledBudget *= RECOVER_FACTOR;
+            // Without a configured limit, the budget is lifted entirely once it doesn't hold back the interpreters
+            if (ServerConfig.instructionBudget <= 0 && throttledBudget > smoothedRate * 2D)
+            {
+                throttledBudget = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        double budget = ServerConfig.instructionBudget > 0 ? ServerConfig.instructionBudget : Double.POSITIVE_INFINITY;
+        if (throttledBudget >= budget)
+        {
+            throttledBudget = Double.POSITIVE_INFINITY;
+        }
+        budget = Math.min(budget, throttledBudget);
+        effectiveBudget = budget;
+        instructionsPerHertz = computeInstructionsPerHertz(budget, runnableFrequency);
+    }
+
+    /**
+     * {@return whether the tick time exceeds the target and the interpreters are a likely cause}
+     * Lag caused by something else can't be fixed by slowing down the interpreters
+     */
+    @VisibleForTesting
+    public static boolean shouldThrottle(double tickMillis, int targetMillis, double interpreterMillis)
+    {
+        return tickMillis > targetMillis && interpreterMillis >= (tickMillis - targetMillis) * CAUSE_SHARE;
+    }
+
+    /**
+     * {@return the share of the budget each interpreter receives per Hertz of its effective oscillator frequency}
+     * Returns {@link Double#POSITIVE_INFINITY} if the interpreters are not limited
+     */
+    @VisibleForTesting
+    public static double computeInstructionsPerHertz(double budget, long runnableFrequency)
+    {
+        if (budget == Double.POSITIVE_INFINITY || runnableFrequency <= 0)
+        {
+            return Double.POSITIVE_INFINITY;
+        }
+        return budget / runnableFrequency;
+    }
+
+    static void recordExecuted(int executed)
+    {
+        EXECUTED.add(executed);
+    }
+
+    static void reset()
+    {
+        EXECUTED.reset();
+        throttledBudget = Double.POSITIVE_INFINITY;
+        effectiveBudget = Double.POSITIVE_INFINITY;
+        instructionsPerHertz = Double.POSITIVE_INFINITY;
+        executedPerSecond = 0D;
+        averageTickMillis = 0D;
+        averageInterpreterMillis = 0D;
+    }
+
+    /**
+     * {@return the amount of instructions per second all interpreters may currently execute combined}
+     * Returns {@link Double#POSITIVE_INFINITY} if the interpreters are not limited
+     */
+    public static double getEffectiveBudget()
+    {
+        return effectiveBudget;
+    }
+
+    public static double getExecutedPerSecond()
+    {
+        return executedPerSecond;
+    }
+
+    public static double getAverageTickMillis()
+    {
+        return averageTickMillis;
+    }
+
+    public static double getAverageInterpreterMillis()
+    {
+        return averageInterpreterMillis;
+    }
+
+    /**
+     * Tracks the share of the budget available to a single interpreter, must only be used by the thread running it
+     */
+    @VisibleForTesting
+    public static final class Allowance
+    {
+        private double instructions = 0D;
+        private long lastNanos = 0L;
+
+        /**
+         * {@return the amount of instructions the interpreter may execute in its next slice, at most the given budget}
+         */
+        int acquire(Interpreter interpreter, long nowNanos, int budget)
+        {
+            return acquire(instructionsPerHertz * interpreter.getEffectiveFrequency(), nowNanos, budget);
+        }
+
+        /**
+         * {@return the amount of whole instructions accrued at the given rate, at most the given budget}
+         * The fraction of an instruction left over is kept for the next slice, such that slow interpreters
+         * running many short slices still receive their full share
+         */
+        @VisibleForTesting
+        public int acquire(double instructionsPerSecond, long nowNanos, int budget)
+        {
+            long elapsed = lastNanos != 0L ? nowNanos - lastNanos : 0L;
+            lastNanos = nowNanos;
+            if (instructionsPerSecond == Double.POSITIVE_INFINITY)
+            {
+                instructions = 0D;
+                return budget;
+            }
+
+            double accrued = instructions + instructionsPerSecond * elapsed / NANOS_PER_SECOND;
+            // Only whole instructions saved up beyond the burst limit are dropped, the fraction is always kept
+            double cap = Math.max(Math.floor(instructionsPerSecond * MAX_BURST_SECONDS), 1D);
+            instructions = accrued >= cap + 1D ? cap + accrued % 1D : accrued;
+            return (int) Math.clamp(Math.floor(instructions), 0D, budget);
+        }
+
+        @VisibleForTesting
+        public void consume(int executed)
+        {
+            instructions -= executed;
+            recordExecuted(executed);
+        }
+    }
+
+
+
+    private ExecutionGovernor() { }
+}
@@ -0,0 +1,213 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
+
+import com.google.common.base.Preconditions;
+import net.minecraft.nbt.CompoundTag;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * External RAM backed by pages of 256 bytes which are only allocated once a non-zero value gets written to them,
+ * all other pages share a single read-only zero page. Addresses wrap around at the configured size, which can
+ * be changed at any time without losing the contents of the pages below the new size.
+ */
+public final class ExternalRam
+{
+    public static final int MAX_SIZE = 65536;
+    private static final int PAGE_SHIFT = 8;
+    public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final byte[] ZERO_PAGE = new byte[PAGE_SIZE];
+
+    private final byte[][] pages = new byte[MAX_SIZE >> PAGE_SHIFT][];
+    private int size;
+
+    public ExternalRam(int size)
+    {
+        Arrays.fill(pages, ZERO_PAGE);
+        setSize(size);
+    }
+
+    public byte read(int address)
+    {
+        address %= size;
+        return pages[address >> PAGE_SHIFT][address & PAGE_MASK];
+    }
+
+    public void write(int address, byte value)
+    {
+        address %= size;
+        byte[] page = pages[address >> PAGE_SHIFT];
+        if (page == ZERO_PAGE)
+        {
+            if (value == 0) return;
+
+            page = new byte[PAGE_SIZE];
+            pages[address >> PAGE_SHIFT] = page;
+        }
+        page[address & PAGE_MASK] = value;
+    }
+
+    /**
+     * Set the size of the RAM, must be a multiple of the page size. Pages beyond the new size are dropped
+     */
+    public void setSize(int size)
+    {
+        Preconditions.checkArgument(
+                size >= PAGE_SIZE && size <= MAX_SIZE && (size & PAGE_MASK) == 0,
+                "Invalid external RAM size %s", size
+        );
+        if (size < this.size)
+        {
+            Arrays.fill(pages, size >> PAGE_SHIFT, this.size >> PAGE_SHIFT, ZERO_PAGE);
+        }
+        this.size = size;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public void reset()
+    {
+        Arrays.fill(pages, ZERO_PAGE);
+    }
+
+    /**
+     * {@return the amount of pages which got allocated}
+     */
+    public int getAllocatedPageCount()
+    {
+        int count = 0;
+        for (byte[] page : pages)
+        {
+            if (page != ZERO_PAGE)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * {@return a copy of the whole RAM}
+     */
+    public byte[] toByteArray()
+    {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size >> PAGE_SHIFT; i++)
+        {
+            if (pages[i] != ZERO_PAGE)
+            {
+                System.arraycopy(pages[i], 0, data, i << PAGE_SHIFT, PAGE_SIZE);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Replace the contents of the RAM with the given data, only pages holding non-zero values get allocated
+     */
+    public void copyFrom(byte[] data)
+    {
+        reset();
+        int length = Math.min(data.length, size);
+        for (int address = 0; address < length; address += PAGE_SIZE)
+        {
+            loadPage(address >> PAGE_SHIFT, data, address);
+        }
+    }
+
+    private void loadPage(int index, byte[] data, int offset)
+    {
+        int length = Math.min(PAGE_SIZE, data.length - offset);
+        for (int i = 0; i < length; i++)
+        {
+            if (data[offset + i] != 0)
+            {
+                byte[] page = new byte[PAGE_SIZE];
+                System.arraycopy(data, offset, page, 0, length);
+                pages[index] = page;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Load the pages of the legacy format, which saved each page holding non-zero values keyed by its page index
+     */
+    public void load(CompoundTag tag)
+    {
+        reset();
+        for (String key : tag.getAllKeys())
+        {
+            int index = parsePageIndex(key);
+            if (index >= 0 && index < size >> PAGE_SHIFT)
+            {
+                loadPage(index, tag.getByteArray(key), 0);
+            }
+        }
+    }
+
+    /**
+     * {@return an upper bound of the amount of bytes written by {@link #writeState(ByteBuffer)}}
+     */
+    int getStateSize()
+    {
+        return 2 + getAllocatedPageCount() * (1 + PAGE_SIZE);
+    }
+
+    void readState(ByteBuffer buffer)
+    {
+        reset();
+        int count = buffer.getShort() & 0xFFFF;
+        for (int i = 0; i < count; i++)
+        {
+            int index = buffer.get() & 0xFF;
+            if (index < size >> PAGE_SHIFT)
+            {
+                byte[] page = new byte[PAGE_SIZE];
+                buffer.get(page);
+                pages[index] = page;
+            }
+            else
+            {
+                buffer.position(buffer.position() + PAGE_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Write all allocated pages which hold non-zero values, prefixed by their page index
+     */
+    void writeState(ByteBuffer buffer)
+    {
+        int countPos = buffer.position();
+        buffer.putShort((short) 0);
+        int count = 0;
+        for (int i = 0; i < size >> PAGE_SHIFT; i++)
+        {
+            byte[] page = pages[i];
+            if (page != ZERO_PAGE && !Arrays.equals(page, ZERO_PAGE))
+            {
+                buffer.put((byte) i);
+                buffer.put(page);
+                count++;
+            }
+        }
+        buffer.putShort(countPos, (short) count);
+    }
+
+    private static int parsePageIndex(String key)
+    {
+        try
+        {
+            return Integer.parseInt(key);
+        }
+        catch (NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+}
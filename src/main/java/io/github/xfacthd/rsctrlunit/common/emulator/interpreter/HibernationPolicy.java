@@ -0,0 +1,17 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
+
+public enum HibernationPolicy
+{
+    /**
+     * Unattended interpreters keep running at full speed
+     */
+    NONE,
+    /**
+     * Unattended interpreters run with their clock slowed down by the configured divisor
+     */
+    THROTTLE,
+    /**
+     * Unattended interpreters stop executing until they are attended again, their state is kept as is
+     */
+    PAUSE
+}
@@ -3,20 +3,28 @@ package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
 import io.github.xfacthd.rsctrlunit.common.emulator.util.Constants;
 import net.minecraft.nbt.CompoundTag;
 
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicIntegerArray;
 
 public final class IOPorts
 {
+    static final int STATE_SIZE = 9;
     private static final int MASK_INT_IN0 = 0b00000100;
     private static final int MASK_TCON_TYPE0 = 0b00000001;
     private static final int MASK_TCON_EDGE0 = 0b00000010;
 
     private final AtomicIntegerArray portStatesOut = new AtomicIntegerArray(4);
     private final AtomicIntegerArray portStatesIn = new AtomicIntegerArray(4);
+    private final AtomicInteger inputVersion = new AtomicInteger();
+    private final WakeupSignal wakeupSignal;
     private boolean lastStateInt0 = false;
     private boolean lastStateInt1 = false;
 
-    IOPorts() { }
+    IOPorts(WakeupSignal wakeupSignal)
+    {
+        this.wakeupSignal = wakeupSignal;
+    }
 
     void run(RAM ram)
     {
@@ -44,7 +52,19 @@ public final class IOPorts
 
     public void writeInputPort(int port, byte value)
     {
-        portStatesIn.set(port, value & 0xFF);
+        if (portStatesIn.getAndSet(port, value & 0xFF) != (value & 0xFF))
+        {
+            inputVersion.incrementAndGet();
+            wakeupSignal.signal();
+        }
+    }
+
+    /**
+     * {@return a counter which changes whenever the state of any input port changes}
+     */
+    int getInputVersion()
+    {
+        return inputVersion.get();
     }
 
     public byte readOutputPort(int port)
@@ -71,18 +91,29 @@ public final class IOPorts
     {
         transferArray(tag.getByteArray("out"), portStatesOut, TransferHandler.LOAD);
         transferArray(tag.getByteArray("in"), portStatesIn, TransferHandler.LOAD);
+        inputVersion.incrementAndGet();
         lastStateInt0 = tag.getBoolean("last_state_int0");
         lastStateInt1 = tag.getBoolean("last_state_int1");
     }
 
-    CompoundTag save()
+    void readState(ByteBuffer buffer)
+    {
+        byte[] states = new byte[4];
+        buffer.get(states);
+        transferArray(states, portStatesOut, TransferHandler.LOAD);
+        buffer.get(states);
+        transferArray(states, portStatesIn, TransferHandler.LOAD);
+        inputVersion.incrementAndGet();
+        byte flags = buffer.get();
+        lastStateInt0 = (flags & 0b01) != 0;
+        lastStateInt1 = (flags & 0b10) != 0;
+    }
+
+    void writeState(ByteBuffer buffer)
     {
-        CompoundTag tag = new CompoundTag();
-        tag.putByteArray("out", transferArray(new byte[4], portStatesOut, TransferHandler.SAVE));
-        tag.putByteArray("in", transferArray(new byte[4], portStatesIn, TransferHandler.SAVE));
-        tag.putBoolean("last_state_int0", lastStateInt0);
-        tag.putBoolean("last_state_int1", lastStateInt1);
-        return tag;
+        buffer.put(transferArray(new byte[4], portStatesOut, TransferHandler.SAVE));
+        buffer.put(transferArray(new byte[4], portStatesIn, TransferHandler.SAVE));
+        buffer.put((byte) ((lastStateInt0 ? 0b01 : 0) | (lastStateInt1 ? 0b10 : 0)));
     }
 
 
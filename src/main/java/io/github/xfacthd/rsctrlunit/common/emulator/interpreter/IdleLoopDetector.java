@@ -0,0 +1,155 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
+
+import io.github.xfacthd.rsctrlunit.common.emulator.core.i8051.I8051Operands;
+import io.github.xfacthd.rsctrlunit.common.emulator.util.Constants;
+
+import java.util.Arrays;
+
+/**
+ * Detects loops which provably can't make progress until an input port changes, a timer overflows or an interrupt
+ * gets triggered, such as polling loops on an input pin or a timer flag.
+ * <p>
+ * Once execution jumped back to the same loop head {@value #PROBE_INTERVAL} times in a row, the state at the loop head
+ * is captured and the next iteration is recorded. If that iteration neither observed the timer count registers,
+ * accessed the serial buffer, wrote to the external RAM nor entered or returned from an interrupt service routine
+ * and left the state unchanged, every further iteration is guaranteed to behave identically until one of the above
+ * events happens.
+ */
+final class IdleLoopDetector
+{
+    private static final int PROBE_INTERVAL = 64;
+    private static final int MAX_LOOP_INSTRUCTIONS = 32;
+    private static final int OPCODE_RETI = 0x32;
+    private static final int TIMER_COUNT_START = Constants.ADDRESS_TL0 - Constants.SFR_START;
+    private static final int TIMER_COUNT_END = Constants.ADDRESS_TH1 - Constants.SFR_START + 1;
+
+    private final Interpreter.InterpreterContext context;
+    private final byte[] ramSnapshot;
+    private final byte[] sfrSnapshot;
+    private final byte[] portSnapshot = new byte[4];
+    private int loopHead = -1;
+    private int headHits = 0;
+    private boolean recording = false;
+    private int recordedInstructions = 0;
+    private long recordStartCycles = 0;
+    private int recordInputVersion = 0;
+
+    IdleLoopDetector(Interpreter.InterpreterContext context)
+    {
+        this.context = context;
+        this.ramSnapshot = new byte[context.ram.getRamArray().length];
+        this.sfrSnapshot = new byte[context.ram.getSfrArray().length];
+    }
+
+    boolean isRecording()
+    {
+        return recording;
+    }
+
+    /**
+     * Record an instruction executed while recording a loop iteration
+     */
+    void recordInstruction(int opcode, byte operand1, byte operand2)
+    {
+        recordedInstructions++;
+        boolean observable = switch (I8051Operands.getDirectAddressOperands(opcode))
+        {
+            case 2 -> isObservable(operand1) || isObservable(operand2);
+            case 1 -> isObservable(operand1);
+            default -> false;
+        };
+        if (observable || recordedInstructions > MAX_LOOP_INSTRUCTIONS || opcode == OPCODE_RETI || I8051Operands.writesExternalRam(opcode))
+        {
+            reset();
+        }
+    }
+
+    /**
+     * Handle execution jumping backwards to the given address
+     *
+     * @return The amount of machine cycles taken by one iteration of the loop if it was found to be idle, zero otherwise
+     */
+    int onBackwardJump(int target)
+    {
+        if (target != loopHead)
+        {
+            reset();
+            loopHead = target;
+            return 0;
+        }
+
+        if (recording)
+        {
+            recording = false;
+            headHits = 0;
+            if (matchesSnapshot())
+            {
+                return (int) (context.machineCycles - recordStartCycles);
+            }
+            return 0;
+        }
+
+        headHits++;
+        if (headHits >= PROBE_INTERVAL)
+        {
+            startRecording();
+        }
+        return 0;
+    }
+
+    /**
+     * {@return the input port version captured at the start of the last recorded iteration}
+     */
+    int getRecordedInputVersion()
+    {
+        return recordInputVersion;
+    }
+
+    void reset()
+    {
+        loopHead = -1;
+        headHits = 0;
+        recording = false;
+    }
+
+    private void startRecording()
+    {
+        recording = true;
+        recordedInstructions = 0;
+        recordStartCycles = context.machineCycles;
+        // Capture the version before the state to catch input changes racing with the recorded iteration
+        recordInputVersion = context.ioPorts.getInputVersion();
+        System.arraycopy(context.ram.getRamArray(), 0, ramSnapshot, 0, ramSnapshot.length);
+        System.arraycopy(context.ram.getSfrArray(), 0, sfrSnapshot, 0, sfrSnapshot.length);
+        for (int port = 0; port < portSnapshot.length; port++)
+        {
+            portSnapshot[port] = context.ioPorts.readOutputPort(port);
+        }
+    }
+
+    private boolean matchesSnapshot()
+    {
+        byte[] sfr = context.ram.getSfrArray();
+        if (!Arrays.equals(ramSnapshot, context.ram.getRamArray()) ||
+                !Arrays.equals(sfrSnapshot, 0, TIMER_COUNT_START, sfr, 0, TIMER_COUNT_START) ||
+                !Arrays.equals(sfrSnapshot, TIMER_COUNT_END, sfrSnapshot.length, sfr, TIMER_COUNT_END, sfr.length))
+        {
+            return false;
+        }
+        for (int port = 0; port < portSnapshot.length; port++)
+        {
+            if (portSnapshot[port] != context.ioPorts.readOutputPort(port))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isObservable(byte operand)
+    {
+        int address = operand & 0xFF;
+        // Writing the serial buffer transmits a frame on every iteration
+        return (address >= Constants.ADDRESS_TL0 && address <= Constants.ADDRESS_TH1) || address == Constants.ADDRESS_SBUF;
+    }
+}
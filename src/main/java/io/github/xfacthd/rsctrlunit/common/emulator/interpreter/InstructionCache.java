@@ -0,0 +1,114 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
+
+import io.github.xfacthd.rsctrlunit.common.emulator.core.CPUCore;
+import io.github.xfacthd.rsctrlunit.common.emulator.opcode.Opcode;
+import io.github.xfacthd.rsctrlunit.common.emulator.util.Constants;
+
+/**
+ * Holds the predecoded instruction starting at every address of the loaded program.
+ * Each instruction is packed into a single int holding the opcode, up to two operand bytes,
+ * the instruction length and its cycle cost. Addresses past the end of the loaded program
+ * are decoded on demand without being cached. The decoded instructions are shared by all interpreters
+ * running the same {@link RomImage}.
+ * <p>
+ * The cache must be rebuilt or invalidated whenever the ROM image gets replaced.
+ */
+public final class InstructionCache
+{
+    private static final int[] EMPTY = new int[0];
+    private static final int OPERAND1_SHIFT = 8;
+    private static final int OPERAND2_SHIFT = 16;
+    private static final int LENGTH_SHIFT = 24;
+    private static final int LENGTH_MASK = 0x3;
+    private static final int CYCLES_SHIFT = 26;
+    private static final int CYCLES_MASK = 0xF;
+
+    private final CPUCore core;
+    private int[] instructions = EMPTY;
+
+    public InstructionCache(CPUCore core)
+    {
+        this.core = core;
+    }
+
+    /**
+     * Use the instructions predecoded from the given ROM image up to the length of its program,
+     * decoding them first if no other interpreter running the same image did so yet
+     */
+    public void rebuild(RomImage image)
+    {
+        if (core.executor == null)
+        {
+            instructions = EMPTY;
+            return;
+        }
+        instructions = image.getInstructions(core, this::decodeAll);
+    }
+
+    private int[] decodeAll(RomImage image)
+    {
+        byte[] rom = image.getData();
+        int[] decoded = new int[Math.min(image.getProgramLength(), rom.length)];
+        for (int address = 0; address < decoded.length; address++)
+        {
+            decoded[address] = decode(rom, address);
+        }
+        return decoded;
+    }
+
+    public void invalidate()
+    {
+        instructions = EMPTY;
+    }
+
+    /**
+     * {@return the packed instruction starting at the given address}
+     */
+    public int get(byte[] rom, int address)
+    {
+        int[] decoded = instructions;
+        if (address < decoded.length)
+        {
+            return decoded[address];
+        }
+        return decode(rom, address);
+    }
+
+    private int decode(byte[] rom, int address)
+    {
+        Opcode opcode = core.opcodeFunc.apply(rom[address]);
+        int operandBytes = opcode.getOperandBytes();
+        int operand1 = operandBytes > 0 ? rom[(address + 1) % Constants.ROM_SIZE] & 0xFF : 0;
+        int operand2 = operandBytes > 1 ? rom[(address + 2) % Constants.ROM_SIZE] & 0xFF : 0;
+        return (rom[address] & 0xFF) |
+                (operand1 << OPERAND1_SHIFT) |
+                (operand2 << OPERAND2_SHIFT) |
+                ((operandBytes + 1) << LENGTH_SHIFT) |
+                (opcode.getCycles() << CYCLES_SHIFT);
+    }
+
+    public static int opcode(int instruction)
+    {
+        return instruction & 0xFF;
+    }
+
+    public static byte operand1(int instruction)
+    {
+        return (byte) (instruction >> OPERAND1_SHIFT);
+    }
+
+    public static byte operand2(int instruction)
+    {
+        return (byte) (instruction >> OPERAND2_SHIFT);
+    }
+
+    public static int length(int instruction)
+    {
+        return (instruction >> LENGTH_SHIFT) & LENGTH_MASK;
+    }
+
+    public static int cycles(int instruction)
+    {
+        return (instruction >> CYCLES_SHIFT) & CYCLES_MASK;
+    }
+}
@@ -1,15 +1,27 @@
 package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
 
+import io.github.xfacthd.rsctrlunit.RedstoneControllerUnit;
 import io.github.xfacthd.rsctrlunit.common.emulator.core.CPUCore;
+import io.github.xfacthd.rsctrlunit.common.emulator.core.CompiledBlock;
+import io.github.xfacthd.rsctrlunit.common.emulator.core.DelayLoopSkipper;
+import io.github.xfacthd.rsctrlunit.common.emulator.core.InstructionExecutor;
 import io.github.xfacthd.rsctrlunit.common.emulator.core.i8051.I8051Opcode;
 import io.github.xfacthd.rsctrlunit.common.emulator.opcode.Opcode;
 import io.github.xfacthd.rsctrlunit.common.emulator.opcode.OpcodeHelpers;
 import io.github.xfacthd.rsctrlunit.common.emulator.util.*;
 import io.github.xfacthd.rsctrlunit.common.util.Utils;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.*;
 
@@ -24,37 +36,54 @@ public final class Interpreter {
      * This is:
      *  * the type of CPU Core being executed
      *  * the registers
-     *  * the ROM being executed
+     *  * the ROM being executed, shared with all other interpreters running the same program
      *  * the program RAM
      *  * the external RAM
      *  * I/O port handlers
      *  * system timers
      *  * interrupt vectors & control units
+     *  * serial port
      * These are outside of the interpreter so that we can pass them around to Opcode functions very simply.
      */
     public static class InterpreterContext {
         public final CPUCore core;
         public final ReentrantLock lock;
-        public final byte[] rom;
+        // Data of the current ROM image, must never be written to
+        public byte[] rom;
+        private RomImage romImage;
         public final IOPorts ioPorts;
         public final RAM ram;
         public final Timers timers;
         public final Interrupts interrupts;
-        public final byte[] extRam;
+        public final SerialPort serial;
+        public final ExternalRam extRam;
+        public final WakeupSignal wakeupSignal;
+        public final InstructionCache instructionCache;
+        public final BlockCache blockCache;
 
         public InterpreterContext(CPUCore core, int romSize, int ramSize, int sfrSize, int extRAMSize) {
             this.core = core;
             this.lock = new ReentrantLock();
-            this.rom = new byte[romSize];
-            this.ioPorts = new IOPorts();
+            this.romImage = RomImage.acquireEmpty(romSize);
+            this.rom = romImage.getData();
+            this.wakeupSignal = new WakeupSignal();
+            this.ioPorts = new IOPorts(wakeupSignal);
             this.ram = new RAM(ioPorts, ramSize, sfrSize);
-            this.timers = new Timers(ram, ioPorts);
             this.interrupts = new Interrupts(ram);
-            this.extRam = new byte[extRAMSize];
+            this.timers = new Timers(ram, ioPorts, interrupts, wakeupSignal);
+            this.serial = new SerialPort(ram, interrupts, wakeupSignal);
+            ram.setTimers(timers);
+            ram.setInterrupts(interrupts);
+            ram.setSerialPort(serial);
+            this.extRam = new ExternalRam(extRAMSize);
+            this.instructionCache = new InstructionCache(core);
+            this.blockCache = new BlockCache(core);
         }
 
         public Code code = Code.EMPTY;
         public int programCounter = 0;
+        public int oscillatorFrequency = Constants.DEFAULT_OSCILLATOR_FREQUENCY;
+        public long machineCycles = 0;
 
         public byte romByte;
 
@@ -101,22 +130,80 @@ public final class Interpreter {
         public void reset(boolean clearRom)
         {
             programCounter = Constants.INITIAL_PROGRAM_COUNTER;
+            machineCycles = 0;
             ram.reset();
-            Arrays.fill(extRam, (byte) 0);
+            timers.reset();
+            serial.reset();
+            interrupts.update();
+            extRam.reset();
             if (clearRom)
             {
-                Arrays.fill(rom, (byte) 0);
+                setRomImage(RomImage.acquireEmpty(rom.length));
             }
         }
+
+        /**
+         * Replace the ROM image with the given image and rebuild all caches derived from the ROM
+         */
+        public void setRomImage(RomImage image)
+        {
+            romImage = image;
+            rom = image.getData();
+            instructionCache.rebuild(image);
+            blockCache.rebuild(image);
+        }
+
+        public RomImage getRomImage()
+        {
+            return romImage;
+        }
+
+        /**
+         * {@return the amount of machine cycles until the next timer overflow or completion of a serial frame}
+         */
+        public long getCyclesUntilEvent()
+        {
+            return Math.min(timers.getCyclesUntilOverflow(), serial.getCyclesUntilEvent());
+        }
     }
 
+    private static final int SLICE_TIME_CHECK_MASK = 0x3F;
+    private static final byte STATE_FORMAT_VERSION = 1;
+    // Version, flags, program counter, oscillator frequency, machine cycles
+    private static final int STATE_HEADER_SIZE = 1 + 1 + 2 + 4 + 8;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int TICKS_PER_SECOND = 20;
+    // Limits the idle time a parked interpreter skips on wakeup to keep the cycle arithmetic from overflowing
+    private static final long MAX_PARKED_NANOS = 60 * NANOS_PER_SECOND;
+    public static final long SLEEP_UNTIL_WOKEN = -1;
+
     private final InterpreterContext context;
     private volatile boolean running = false;
     private volatile boolean paused = false;
     private volatile boolean stepRequested = false;
+    private ExecutionEngine executionEngine = ExecutionEngine.SWITCH;
+    private boolean clockStarted = false;
+    private long lastClockNanos = 0;
+    private long owedCycles = 0;
+    private long owedCycleRemainder = 0;
+    private long maxOwedCycles = 0;
+    private long tickCycleRemainder = 0;
+    private int clockDivisor = 1;
+    private final IdleLoopDetector idleLoopDetector;
+    private boolean idleLoopParking = true;
+    private boolean delayLoopSkipping = true;
+    private int parkedLoopCycles = 0;
+    private int parkedInputVersion = 0;
+    private final Queue<Consumer<Interpreter>> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean snapshotRequested = new AtomicBoolean(false);
+    private volatile InterpreterSnapshot snapshot;
+    // Bumped whenever the persisted state may have changed, read by the owner to decide whether it needs saving
+    private final AtomicInteger stateVersion = new AtomicInteger();
 
     public Interpreter(InterpreterContext context) {
         this.context = context;
+        this.idleLoopDetector = new IdleLoopDetector(context);
+        this.snapshot = InterpreterSnapshot.of(context);
     }
 
     public InterpreterContext getContext() {
@@ -128,6 +215,8 @@ public final class Interpreter {
         context.lock.lock();
         try
         {
+            applyCommands();
+            unpark();
             runInternal();
         }
         finally
@@ -136,27 +225,552 @@ public final class Interpreter {
         }
     }
 
-    private void runInternal()
+    /**
+     * Executes up to {@code budget} instructions under a single lock acquisition.
+     * The slice ends early when the interpreter gets paused or the given time limit is exceeded.
+     *
+     * @param budget The maximum amount of instructions to execute
+     * @param timeLimitNanos The maximum wall time the slice may take, zero or negative to disable the limit
+     * @return The amount of instructions executed
+     */
+    public int runSlice(int budget, long timeLimitNanos)
+    {
+        context.lock.lock();
+        try
+        {
+            applyCommands();
+            return runSliceInternal(budget, false, timeLimitNanos);
+        }
+        finally
+        {
+            context.lock.unlock();
+        }
+    }
+
+    /**
+     * Executes the machine cycles owed for the wall time elapsed since the previous call, based on the
+     * oscillator frequency of this interpreter. Cycles which can't be executed within the instruction budget
+     * or time limit are carried over to the next call.
+     *
+     * @param nowNanos The current time as returned by {@link System#nanoTime()}
+     * @param maxBacklogNanos The maximum amount of elapsed time to catch up on, any time beyond that is dropped
+     * @param budget The maximum amount of instructions to execute
+     * @param timeLimitNanos The maximum wall time the slice may take, zero or negative to disable the limit
+     * @return The amount of instructions executed
+     */
+    public int runOwedCycles(long nowNanos, long maxBacklogNanos, int budget, long timeLimitNanos)
+    {
+        context.lock.lock();
+        try
+        {
+            applyCommands();
+            accrueCycles(nowNanos, maxBacklogNanos);
+            return runSliceInternal(budget, true, timeLimitNanos);
+        }
+        finally
+        {
+            context.lock.unlock();
+        }
+    }
+
+    /**
+     * Executes exactly the machine cycles making up one game tick at the oscillator frequency of this interpreter.
+     * Cycles overshot by the last instruction are deducted from the next call. Unlike {@link #runOwedCycles}, the
+     * result only depends on the state of the interpreter and its inputs, not on wall time.
+     *
+     * @return The amount of instructions executed
+     */
+    public int runTickCycles()
+    {
+        context.lock.lock();
+        try
+        {
+            applyCommands();
+            long cyclesPerSecond = getCyclesPerSecond();
+            long scaledCycles = cyclesPerSecond + tickCycleRemainder;
+            owedCycles += scaledCycles / TICKS_PER_SECOND;
+            tickCycleRemainder = scaledCycles % TICKS_PER_SECOND;
+            maxOwedCycles = Math.max(owedCycles, 0);
+            // Restart the wall clock when returning to free-running execution instead of catching up on the ticks
+            clockStarted = false;
+            return runSliceInternal(Integer.MAX_VALUE, true, 0);
+        }
+        finally
+        {
+            context.lock.unlock();
+        }
+    }
+
+    private void accrueCycles(long nowNanos, long maxBacklogNanos)
+    {
+        // Parked and halted interpreters skip idle time in constant time, only the backlog left after waking up needs to be limited
+        long elapsed = Math.min(nowNanos - lastClockNanos, canSkipIdleTime() ? MAX_PARKED_NANOS : maxBacklogNanos);
+        lastClockNanos = nowNanos;
+        if (!clockStarted)
+        {
+            clockStarted = true;
+            return;
+        }
+        if (elapsed <= 0) return;
+
+        long cyclesPerSecond = getCyclesPerSecond();
+        long scaledCycles = elapsed * cyclesPerSecond + owedCycleRemainder;
+        maxOwedCycles = maxBacklogNanos * cyclesPerSecond / NANOS_PER_SECOND;
+        owedCycles += scaledCycles / NANOS_PER_SECOND;
+        if (!canSkipIdleTime())
+        {
+            owedCycles = Math.min(owedCycles, maxOwedCycles);
+        }
+        owedCycleRemainder = scaledCycles % NANOS_PER_SECOND;
+    }
+
+    private long getCyclesPerSecond()
+    {
+        return Math.max(context.oscillatorFrequency / Constants.OSCILLATOR_PERIODS_PER_CYCLE / clockDivisor, 1);
+    }
+
+    /**
+     * Advances the timers by the given amount of time the interpreter was suspended for without executing any
+     * instructions and restarts the wall clock, such that the suspended time isn't caught up on by executing
+     *
+     * @param elapsedNanos The amount of time the interpreter was suspended for
+     * @param catchUpTimers Whether the timers should advance by the suspended time or keep their state as is
+     */
+    public void skipTime(long elapsedNanos, boolean catchUpTimers)
+    {
+        context.lock.lock();
+        try
+        {
+            applyCommands();
+            clockStarted = false;
+            if (!catchUpTimers || elapsedNanos <= 0) return;
+
+            long increments;
+            if (context.timers.getClockSource() == TimerClockSource.MACHINE_CYCLE)
+            {
+                long cyclesPerSecond = getCyclesPerSecond();
+                increments = elapsedNanos / NANOS_PER_SECOND * cyclesPerSecond + (elapsedNanos % NANOS_PER_SECOND) * cyclesPerSecond / NANOS_PER_SECOND;
+            }
+            else
+            {
+                increments = elapsedNanos / (NANOS_PER_SECOND / TICKS_PER_SECOND);
+            }
+            unpark();
+            context.timers.advance(increments);
+            stateVersion.incrementAndGet();
+        }
+        finally
+        {
+            context.lock.unlock();
+        }
+    }
+
+    private int runSliceInternal(int budget, boolean clocked, long timeLimitNanos)
+    {
+        long startCycles = context.machineCycles;
+        int executed = executeSlice(budget, clocked, timeLimitNanos);
+        // Executing anything at all changes at least the program counter. Halted and parked interpreters advance
+        // the clock and timers without executing, game ticks and serial frames picked up at the start of the slice
+        // change the timer and serial state as well
+        if (executed > 0 || context.machineCycles != startCycles || context.timers.isTickApplied() || context.serial.isChangedBySliceStart())
+        {
+            stateVersion.incrementAndGet();
+        }
+        return executed;
+    }
+
+    private int executeSlice(int budget, boolean clocked, long timeLimitNanos)
+    {
+        // Pick up writes to the interrupt SFRs which bypassed RAM
+        context.interrupts.update();
+        // Timers clocked by the game tick may overflow and frames may arrive at the start of any slice
+        if ((context.timers.beginSlice() | context.serial.beginSlice(isPoweredDown())) && isParked())
+        {
+            wakeFromPark();
+        }
+        if (isParked())
+        {
+            if (!idleLoopParking)
+            {
+                unpark();
+            }
+            else if (!clocked || runParked())
+            {
+                return 0;
+            }
+        }
+
+        long deadline = timeLimitNanos > 0 ? System.nanoTime() + timeLimitNanos : Long.MAX_VALUE;
+        boolean compiled = executionEngine == ExecutionEngine.JIT && context.core.compiler != null;
+        DelayLoopSkipper skipper = delayLoopSkipping && executionEngine != ExecutionEngine.OPCODE_TABLE ? context.core.delayLoopSkipper : null;
+        int executed = 0;
+        int iterations = 0;
+        while (executed < budget && !paused && (!clocked || owedCycles > 0))
+        {
+            int cycles = enterPendingInterrupt();
+            int haltMode = cycles == 0 ? getHaltMode() : 0;
+            if (haltMode != 0)
+            {
+                if (clocked)
+                {
+                    runHalted(haltMode);
+                }
+                else if (haltMode == Constants.MASK_PCON_IDLE)
+                {
+                    // Without a clock, each step of an idle interpreter takes a single machine cycle
+                    advanceClock(1);
+                    executed++;
+                }
+                else
+                {
+                    break;
+                }
+                continue;
+            }
+
+            int pc = context.programCounter;
+            // The idle loop detector needs to see every instruction of the recorded iteration
+            long skipped = 0;
+            if (skipper != null)
+            {
+                long maxCycles = clocked ? owedCycles - cycles : Integer.MAX_VALUE;
+                skipped = skipper.skip(context, (int) Math.min(maxCycles, Integer.MAX_VALUE), budget - executed);
+            }
+            CompiledBlock block = skipped == 0 && compiled && !idleLoopDetector.isRecording() ? context.blockCache.get(context.instructionCache, context.rom, context.programCounter) : null;
+            if (skipped != 0)
+            {
+                cycles += DelayLoopSkipper.cycles(skipped);
+                executed += DelayLoopSkipper.instructions(skipped);
+            }
+            // Blocks exceeding the remaining budget are left to the interpreter to not overshoot it
+            else if (block != null && block.getInstructions() <= budget - executed && (!clocked || block.getCycles() <= owedCycles - cycles))
+            {
+                block.execute(context);
+                cycles += block.getCycles();
+                executed += block.getInstructions();
+            }
+            else
+            {
+                cycles += executeInstruction();
+                executed++;
+            }
+            advanceClock(cycles);
+
+            if (clocked)
+            {
+                owedCycles -= cycles;
+            }
+            if (idleLoopParking && context.programCounter <= pc)
+            {
+                int loopCycles = idleLoopDetector.onBackwardJump(context.programCounter);
+                if (loopCycles > 0)
+                {
+                    park(loopCycles);
+                    if (!clocked || runParked())
+                    {
+                        break;
+                    }
+                }
+            }
+            iterations++;
+            if ((iterations & SLICE_TIME_CHECK_MASK) == 0 && System.nanoTime() >= deadline)
+            {
+                break;
+            }
+        }
+        return executed;
+    }
+
+    /**
+     * Executes a single instruction, including entering a pending interrupt service routine
+     *
+     * @return The amount of machine cycles taken
+     */
+    private int runInternal()
+    {
+        stateVersion.incrementAndGet();
+        context.interrupts.update();
+        context.timers.beginSlice();
+        context.serial.beginSlice(isPoweredDown());
+        int cycles = enterPendingInterrupt();
+        int haltMode = cycles == 0 ? getHaltMode() : 0;
+        if ((haltMode & Constants.MASK_PCON_POWER_DOWN) != 0)
+        {
+            return 0;
+        }
+        cycles += haltMode != 0 ? 1 : executeInstruction();
+        advanceClock(cycles);
+        return cycles;
+    }
+
+    /**
+     * {@return the PCON bits of the halt mode the CPU is in, power-down takes precedence over idle}
+     */
+    private int getHaltMode()
+    {
+        int pcon = context.ram.read(Constants.ADDRESS_PCON);
+        if ((pcon & Constants.MASK_PCON_POWER_DOWN) != 0)
+        {
+            return Constants.MASK_PCON_POWER_DOWN;
+        }
+        return pcon & Constants.MASK_PCON_IDLE;
+    }
+
+    /**
+     * {@return whether the oscillator is stopped by power-down mode}
+     * Only an external interrupt or a reset may end power-down mode, the serial port must not complete
+     * transmissions or receive frames in the meantime
+     */
+    private boolean isPoweredDown()
+    {
+        return getHaltMode() == Constants.MASK_PCON_POWER_DOWN;
+    }
+
+    /**
+     * Consumes owed cycles while the CPU is halted. In idle mode, the timers keep running until the next overflow,
+     * which may trigger the interrupt ending the idle mode. In power-down mode, the oscillator is stopped and the
+     * owed cycles are dropped.
+     */
+    private void runHalted(int haltMode)
+    {
+        if (haltMode == Constants.MASK_PCON_POWER_DOWN)
+        {
+            owedCycles = 0;
+            return;
+        }
+
+        int cycles = (int) Math.min(Math.min(owedCycles, context.getCyclesUntilEvent()), Integer.MAX_VALUE);
+        advanceClock(cycles);
+        owedCycles -= cycles;
+    }
+
+    private boolean canSkipIdleTime()
+    {
+        return isParked() || getHaltMode() != 0;
+    }
+
+    private int enterPendingInterrupt()
     {
-        context.timers.run();
         context.ioPorts.run(context.ram);
         int isrAddress = context.interrupts.run();
         if (isrAddress != -1)
         {
             context.pushStateBeforeCall();
             context.setProgramCounter(isrAddress);
+            idleLoopDetector.reset();
+            // Any serviced interrupt terminates idle mode, power-down mode can only be left through the external interrupts
+            int pcon = context.ram.read(Constants.ADDRESS_PCON);
+            context.ram.write(Constants.ADDRESS_PCON, pcon & ~(Constants.MASK_PCON_IDLE | Constants.MASK_PCON_POWER_DOWN));
+            return Constants.ISR_CALL_CYCLES;
+        }
+        return 0;
+    }
+
+    private int executeInstruction()
+    {
+        int cycles;
+        InstructionExecutor executor = context.core.executor;
+        if (executionEngine != ExecutionEngine.OPCODE_TABLE && executor != null)
+        {
+            int instruction = context.instructionCache.get(context.rom, context.programCounter);
+            int opcode = InstructionCache.opcode(instruction);
+            context.romByte = (byte) opcode;
+            context.setProgramCounter(context.programCounter + InstructionCache.length(instruction));
+            byte operand1 = InstructionCache.operand1(instruction);
+            byte operand2 = InstructionCache.operand2(instruction);
+            if (idleLoopDetector.isRecording())
+            {
+                idleLoopDetector.recordInstruction(opcode, operand1, operand2);
+            }
+            executor.execute(context, opcode, operand1, operand2);
+            cycles = InstructionCache.cycles(instruction);
+        }
+        else
+        {
+            // Operands aren't known up front on this path, which prevents proving a loop to be idle
+            idleLoopDetector.reset();
+            context.romByte = context.readRomAndIncrementPC();
+            Opcode opcode = context.core.opcodeFunc.apply(context.romByte);
+            opcode.getOpcodeFunc().accept(context);
+            cycles = opcode.getCycles();
+        }
+        return cycles;
+    }
+
+    private void advanceClock(int cycles)
+    {
+        context.machineCycles += cycles;
+        context.timers.run(cycles);
+        context.serial.run(cycles);
+    }
+
+    private boolean isParked()
+    {
+        return parkedLoopCycles > 0;
+    }
+
+    private void park(int loopCycles)
+    {
+        parkedLoopCycles = loopCycles;
+        parkedInputVersion = idleLoopDetector.getRecordedInputVersion();
+    }
+
+    private void unpark()
+    {
+        parkedLoopCycles = 0;
+        idleLoopDetector.reset();
+    }
+
+    /**
+     * Skips whole iterations of the idle loop the interpreter is parked in, up to the amount of owed cycles.
+     * The interpreter is woken up when an input port changed or a timer overflow or serial frame is due within the owed cycles,
+     * in which case the loop has to be interpreted again to observe the change at the correct time.
+     *
+     * @return true if the interpreter is still parked
+     */
+    private boolean runParked()
+    {
+        boolean inputChanged = context.ioPorts.getInputVersion() != parkedInputVersion;
+        long untilEvent = context.getCyclesUntilEvent();
+        // The time up to the wakeup is spent in the loop, except for the last iteration which has to observe the change
+        long skippable = Math.min(Math.min(owedCycles - (inputChanged ? 1 : 0), untilEvent - 1), Integer.MAX_VALUE);
+        int cycles = (int) (skippable / parkedLoopCycles * parkedLoopCycles);
+        if (cycles > 0)
+        {
+            advanceClock(cycles);
+            owedCycles -= cycles;
+        }
+
+        if (inputChanged || context.getCyclesUntilEvent() <= owedCycles)
+        {
+            wakeFromPark();
+            return false;
+        }
+        return true;
+    }
+
+    private void wakeFromPark()
+    {
+        unpark();
+        owedCycles = Math.min(owedCycles, maxOwedCycles);
+    }
+
+    /**
+     * {@return the time in nanoseconds until this interpreter needs to run again}
+     * Returns {@link #SLEEP_UNTIL_WOKEN} if the interpreter can't make progress until its {@link WakeupSignal} fires
+     *
+     * @param intervalNanos The regular interval at which the interpreter is run
+     */
+    public long getSleepNanos(long intervalNanos)
+    {
+        context.lock.lock();
+        try
+        {
+            int haltMode = getHaltMode();
+            if (paused || haltMode == Constants.MASK_PCON_POWER_DOWN)
+            {
+                return SLEEP_UNTIL_WOKEN;
+            }
+            if (!isParked() && haltMode == 0)
+            {
+                return intervalNanos;
+            }
+
+            long untilEvent = context.getCyclesUntilEvent();
+            if (untilEvent == Long.MAX_VALUE)
+            {
+                return SLEEP_UNTIL_WOKEN;
+            }
+            long cyclesPerSecond = getCyclesPerSecond();
+            long sleepNanos = Math.max(untilEvent - owedCycles, 0) * NANOS_PER_SECOND / cyclesPerSecond;
+            return Math.max(sleepNanos, intervalNanos);
+        }
+        finally
+        {
+            context.lock.unlock();
+        }
+    }
+
+    /**
+     * Queues an operation to be applied by the thread running this interpreter before its next execution slice.
+     * Unlike {@link #writeLockGuarded(Object, BiConsumer)}, this never blocks the calling thread.
+     */
+    public <T> void post(T data, BiConsumer<Interpreter, T> operation)
+    {
+        commands.add(interp -> operation.accept(interp, data));
+        context.wakeupSignal.signal();
+    }
+
+    /**
+     * Requests a fresh snapshot to be published before the next execution slice
+     *
+     * @return The most recently published snapshot
+     */
+    public InterpreterSnapshot requestSnapshot()
+    {
+        if (snapshotRequested.compareAndSet(false, true))
+        {
+            context.wakeupSignal.signal();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Applies queued commands and publishes a requested snapshot. Must be called regularly by the thread running
+     * this interpreter, even while execution is paused.
+     */
+    public void processCommands()
+    {
+        if (commands.isEmpty() && !snapshotRequested.get()) return;
+
+        context.lock.lock();
+        try
+        {
+            applyCommands();
+        }
+        finally
+        {
+            context.lock.unlock();
+        }
+    }
+
+    private void applyCommands()
+    {
+        Consumer<Interpreter> command;
+        while ((command = commands.poll()) != null)
+        {
+            unpark();
+            command.accept(this);
+            stateVersion.incrementAndGet();
+        }
+        if (snapshotRequested.get() && snapshotRequested.compareAndSet(true, false))
+        {
+            snapshot = InterpreterSnapshot.of(context);
         }
+    }
 
-        context.romByte = context.readRomAndIncrementPC();
-        Opcode opcode = context.core.opcodeFunc.apply(context.romByte);
-        opcode.getOpcodeFunc().accept(context);
+    public void setWakeupListener(@Nullable Runnable listener)
+    {
+        context.wakeupSignal.setListener(listener);
     }
 
     public void loadCode(Code code)
     {
-        context.reset(true);
+        unpark();
+        context.reset(false);
         this.context.code = code;
-        System.arraycopy(code.rom(), 0, this.context.rom, 0, Math.min(code.rom().length, Constants.ROM_SIZE));
+        this.context.setRomImage(RomImage.acquire(code.rom(), this.context.rom.length));
+    }
+
+    /**
+     * Replace the program without resetting the controller, used to restore the program of a controller
+     * which was saved without it
+     */
+    public void restoreCode(Code code)
+    {
+        unpark();
+        context.code = code;
+        context.setRomImage(RomImage.acquire(code.rom(), context.rom.length));
     }
 
     public Code getCode()
@@ -174,10 +788,93 @@ public final class Interpreter {
         return context.ram.getSfrArray();
     }
 
+    /**
+     * {@return a copy of the external RAM}
+     */
     @VisibleForTesting
     public byte[] getExtRam()
     {
-        return context.extRam;
+        return context.extRam.toByteArray();
+    }
+
+    public void setExternalRamSize(int size)
+    {
+        if (size != context.extRam.getSize())
+        {
+            writeLockGuarded(size, (interpreter, newSize) -> interpreter.context.extRam.setSize(newSize));
+        }
+    }
+
+    public int getOscillatorFrequency()
+    {
+        return context.oscillatorFrequency;
+    }
+
+    public void setOscillatorFrequency(int frequency)
+    {
+        context.oscillatorFrequency = Math.clamp(frequency, Constants.OSCILLATOR_PERIODS_PER_CYCLE, Constants.MAX_OSCILLATOR_FREQUENCY);
+    }
+
+    /**
+     * Slows down the clock of this interpreter by the given factor without changing its oscillator frequency
+     */
+    public void setClockDivisor(int divisor)
+    {
+        this.clockDivisor = Math.max(divisor, 1);
+    }
+
+    /**
+     * {@return the oscillator frequency this interpreter effectively runs at after applying the clock divisor}
+     */
+    int getEffectiveFrequency()
+    {
+        return Math.max(context.oscillatorFrequency / clockDivisor, 1);
+    }
+
+    /**
+     * {@return whether this interpreter is currently executing instructions instead of being paused, halted or
+     * parked in an idle loop}
+     * The state is read without holding the lock, so the result may be outdated
+     */
+    public boolean isRunnable()
+    {
+        return !paused && !isParked() && getHaltMode() == 0;
+    }
+
+    public long getMachineCycles()
+    {
+        return context.machineCycles;
+    }
+
+    public void setExecutionEngine(ExecutionEngine engine)
+    {
+        this.executionEngine = engine;
+    }
+
+    public ExecutionEngine getExecutionEngine()
+    {
+        return executionEngine;
+    }
+
+    public void setCompileThreshold(int threshold)
+    {
+        context.blockCache.setCompileThreshold(threshold);
+    }
+
+    public void setIdleLoopParking(boolean idleLoopParking)
+    {
+        this.idleLoopParking = idleLoopParking;
+    }
+
+    public void setDelayLoopSkipping(boolean delayLoopSkipping)
+    {
+        this.delayLoopSkipping = delayLoopSkipping;
+    }
+
+    @VisibleForTesting
+    public boolean isParkedInIdleLoop()
+    {
+        return readLockGuarded(Interpreter::isParked);
     }
 
     public IOPorts getIoPorts()
@@ -190,11 +887,24 @@ public final class Interpreter {
         return context.timers;
     }
 
+    public SerialPort getSerialPort()
+    {
+        return context.serial;
+    }
+
     boolean isRunning()
     {
         return running;
     }
 
+    /**
+     * {@return a counter which changes whenever the state persisted by {@link #save()} may have changed}
+     */
+    public int getStateVersion()
+    {
+        return stateVersion.get();
+    }
+
     public boolean isPaused()
     {
         return paused;
@@ -210,16 +920,20 @@ public final class Interpreter {
     public void pause()
     {
         paused = true;
+        stateVersion.incrementAndGet();
     }
 
     public void resume()
     {
         paused = false;
+        stateVersion.incrementAndGet();
+        context.wakeupSignal.signal();
     }
 
     public void step()
     {
         stepRequested = true;
+        context.wakeupSignal.signal();
     }
 
     public void startup()
@@ -237,12 +951,16 @@ public final class Interpreter {
         context.lock.lock();
         try
         {
+            applyCommands();
+            unpark();
             operation.accept(this, data);
+            stateVersion.incrementAndGet();
         }
         finally
         {
             context.lock.unlock();
         }
+        context.wakeupSignal.signal();
     }
 
     public <R> R readLockGuarded(Function<Interpreter, R> operation)
@@ -250,6 +968,7 @@ public final class Interpreter {
         context.lock.lock();
         try
         {
+            applyCommands();
             return operation.apply(this);
         }
         finally
@@ -260,30 +979,131 @@ public final class Interpreter {
 
     public void load(CompoundTag tag)
     {
-        context.code = Utils.fromNbt(Code.CODEC, tag.getCompound("code"), Code.EMPTY);
-        Utils.copyByteArray(context.code.rom(), context.rom);
+        unpark();
+        restoreCode(Utils.fromNbt(Code.CODEC, tag.getCompound("code"), Code.EMPTY));
+        if (tag.contains("state", Tag.TAG_BYTE_ARRAY))
+        {
+            loadState(tag.getByteArray("state"));
+        }
+        else
+        {
+            // Saved as a tree of tags before the state was stored in a binary blob
+            loadLegacyState(tag);
+        }
+    }
+
+    private void loadState(byte[] state)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(state);
+        try
+        {
+            int version = buffer.get();
+            // Older binary formats must be migrated here once the format changes
+            if (version != STATE_FORMAT_VERSION)
+            {
+                RedstoneControllerUnit.LOGGER.error("Unknown interpreter state format version {}, resetting state", version);
+                context.reset(false);
+                paused = false;
+                return;
+            }
+
+            paused = buffer.get() != 0;
+            context.programCounter = Math.floorMod(buffer.getShort(), Constants.ROM_SIZE);
+            setOscillatorFrequency(buffer.getInt());
+            context.machineCycles = buffer.getLong();
+            readArray(buffer, context.ram.getRamArray());
+            readArray(buffer, context.ram.getSfrArray());
+            context.ioPorts.readState(buffer);
+            context.timers.readState(buffer);
+            context.interrupts.readState(buffer);
+            context.serial.readState(buffer);
+            context.extRam.readState(buffer);
+        }
+        catch (BufferUnderflowException | IllegalArgumentException e)
+        {
+            RedstoneControllerUnit.LOGGER.error("Encountered truncated interpreter state, resetting state", e);
+            context.reset(false);
+            paused = false;
+        }
+    }
+
+    private void loadLegacyState(CompoundTag tag)
+    {
         Utils.copyByteArray(tag.getByteArray("ram"), context.ram.getRamArray());
         Utils.copyByteArray(tag.getByteArray("sfr"), context.ram.getSfrArray());
         context.ioPorts.load(tag.getCompound("io"));
         context.timers.load(tag.getCompound("timers"));
         context.interrupts.load(tag.getCompound("interrupts"));
-        Utils.copyByteArray(tag.getByteArray("external_ram"), context.extRam);
+        context.serial.load(tag.getCompound("serial"));
+        if (tag.contains("external_ram", Tag.TAG_BYTE_ARRAY))
+        {
+            // Stored as a flat array before the external RAM was paged
+            context.extRam.copyFrom(tag.getByteArray("external_ram"));
+        }
+        else
+        {
+            context.extRam.load(tag.getCompound("external_ram"));
+        }
         context.programCounter = tag.getInt("program_counter");
+        if (tag.contains("oscillator_frequency"))
+        {
+            setOscillatorFrequency(tag.getInt("oscillator_frequency"));
+        }
+        context.machineCycles = tag.getLong("machine_cycles");
         paused = tag.getBoolean("paused");
     }
 
     public CompoundTag save()
+    {
+        return save(true);
+    }
+
+    /**
+     * Save the state of this interpreter, the program is left out if the caller stores it elsewhere
+     */
+    public CompoundTag save(boolean includeCode)
     {
         CompoundTag tag = new CompoundTag();
-        tag.put("code", Utils.toNbt(Code.CODEC, context.code));
-        tag.putByteArray("ram", Arrays.copyOf(context.ram.getRamArray(), context.ram.getRamArray().length));
-        tag.putByteArray("sfr", Arrays.copyOf(context.ram.getSfrArray(), context.ram.getSfrArray().length));
-        tag.put("io", context.ioPorts.save());
-        tag.put("timers", context.timers.save());
-        tag.put("interrupts", context.interrupts.save());
-        tag.putByteArray("external_ram", Arrays.copyOf(context.extRam, context.extRam.length));
-        tag.putInt("program_counter", context.programCounter);
-        tag.putBoolean("paused", paused);
+        if (includeCode)
+        {
+            tag.put("code", Utils.toNbt(Code.CODEC, context.code));
+        }
+        tag.putByteArray("state", saveState());
         return tag;
     }
+
+    /**
+     * Write the whole machine state into a single binary blob. All values are written at fixed offsets except
+     * for the external RAM, of which only the pages holding non-zero values are written.
+     */
+    private byte[] saveState()
+    {
+        byte[] ram = context.ram.getRamArray();
+        byte[] sfr = context.ram.getSfrArray();
+        int size = STATE_HEADER_SIZE + 2 + ram.length + 2 + sfr.length + IOPorts.STATE_SIZE + Timers.STATE_SIZE +
+                Interrupts.STATE_SIZE + SerialPort.STATE_SIZE + context.extRam.getStateSize();
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(STATE_FORMAT_VERSION);
+        buffer.put((byte) (paused ? 1 : 0));
+        buffer.putShort((short) context.programCounter);
+        buffer.putInt(context.oscillatorFrequency);
+        buffer.putLong(context.machineCycles);
+        buffer.putShort((short) ram.length).put(ram);
+        buffer.putShort((short) sfr.length).put(sfr);
+        context.ioPorts.writeState(buffer);
+        context.timers.writeState(buffer);
+        context.interrupts.writeState(buffer);
+        context.serial.writeState(buffer);
+        context.extRam.writeState(buffer);
+        // Pages which were allocated but hold only zeroes are not written
+        return buffer.hasRemaining() ? Arrays.copyOf(buffer.array(), buffer.position()) : buffer.array();
+    }
+
+    private static void readArray(ByteBuffer buffer, byte[] array)
+    {
+        int length = buffer.getShort() & 0xFFFF;
+        int copied = Math.min(length, array.length);
+        buffer.get(array, 0, copied);
+        buffer.position(buffer.position() + length - copied);
+    }
 }
@@ -0,0 +1,19 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
+
+/**
+ * Copy of the observable interpreter state, published by the thread running the interpreter.
+ * The arrays are never modified after publication and must not be modified by consumers.
+ */
+public record InterpreterSnapshot(byte[] ram, byte[] sfr, byte[] output, byte[] input, int programCounter)
+{
+    static InterpreterSnapshot of(Interpreter.InterpreterContext context)
+    {
+        return new InterpreterSnapshot(
+                context.ram.getRamArray().clone(),
+                context.ram.getSfrArray().clone(),
+                context.ioPorts.getPortStatesOut(),
+                context.ioPorts.getPortStatesIn(),
+                context.programCounter
+        );
+    }
+}
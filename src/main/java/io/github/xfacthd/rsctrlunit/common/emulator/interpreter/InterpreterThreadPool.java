@@ -1,78 +1,387 @@
 package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
 
 import io.github.xfacthd.rsctrlunit.RedstoneControllerUnit;
+import io.github.xfacthd.rsctrlunit.common.config.ServerConfig;
+import net.minecraft.core.BlockPos;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
 import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.event.server.ServerAboutToStartEvent;
 import net.neoforged.neoforge.event.server.ServerStartingEvent;
 import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Runs all interpreters of the current server. A single scheduler thread only keeps track of when each interpreter
+ * needs to run next and hands it to a work-stealing pool of worker threads for execution. Interpreters rescheduled
+ * immediately stay on the worker which ran them last, idle workers take over queued interpreters from busy ones.
+ * <p>
+ * In tick-synchronous mode, the background tasks stand by and all interpreters instead execute one tick worth of
+ * machine cycles in parallel at the start of each server tick. The server thread waits for all of them to finish
+ * before ticking the block entities, which keeps the inputs stable while the interpreters run and makes output
+ * changes visible to the world only after every interpreter completed its tick. Interpreters connected by a serial
+ * link run their tick on the same worker, ordered by position, to keep their communication deterministic.
+ * <p>
+ * Interpreters whose chunk is not entity-ticking are considered unattended and are throttled or paused according
+ * to the configured {@link HibernationPolicy}. Optionally, interpreters without a player in the configured range
+ * are considered unattended as well.
+ * <p>
+ * Registrations and removals are collected and applied in bulk at the start of the next server tick. The first
+ * slices of interpreters registered in the same tick are spread over the tick to avoid a burst of work when
+ * many controllers load at once.
+ */
 public final class InterpreterThreadPool
 {
-    private static final int TASK_INTERVAL_MS = 1;
-    private static final Map<Interpreter, Future<?>> ACTIVE_INTEPRETERS = new IdentityHashMap<>();
-    private static MinecraftServer currentServer = null;
-    private static ScheduledExecutorService executors = null;
+    private static final long TASK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long STANDBY_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    // Cores left to the server thread and the network and chunk IO threads when the worker count is chosen automatically
+    private static final int RESERVED_CORES = 2;
+    private static final int HIBERNATION_CHECK_INTERVAL = 20;
+    // Amount of scheduler intervals the first slices of newly registered interpreters are spread over
+    private static final int STARTUP_STAGGER_SLOTS = 50;
+    private static final Map<Interpreter, InterpreterTask> ACTIVE_INTEPRETERS = new ConcurrentHashMap<>();
+    private static final RegistrationQueue<Interpreter, InterpreterTask> PENDING_REGISTRATIONS = new RegistrationQueue<>();
+    // Time spent executing interpreters on the workers since the last server tick
+    private static final LongAdder BUSY_NANOS = new LongAdder();
+    private static long tickSynchronousNanos = 0L;
+    private static volatile MinecraftServer currentServer = null;
+    private static ScheduledExecutorService scheduler = null;
+    private static ForkJoinPool workers = null;
 
     public static void init()
     {
         NeoForge.EVENT_BUS.addListener(InterpreterThreadPool::onServerStarting);
         NeoForge.EVENT_BUS.addListener(InterpreterThreadPool::onServerStopped);
+        NeoForge.EVENT_BUS.addListener(InterpreterThreadPool::onServerTickPre);
+        NeoForge.EVENT_BUS.addListener(InterpreterThreadPool::onServerTickPost);
     }
 
-    public static void addInterpreter(Interpreter interpreter)
+    public static void addInterpreter(Interpreter interpreter, ServerLevel level, BlockPos pos)
     {
         Objects.requireNonNull(currentServer, "No server present!");
-        Future<?> future = executors.scheduleAtFixedRate(new InterpreterTask(interpreter), 0, TASK_INTERVAL_MS, TimeUnit.MILLISECONDS);
-        ACTIVE_INTEPRETERS.put(interpreter, future);
+        InterpreterTask task = new InterpreterTask(interpreter, level, pos, scheduler, workers);
+        PENDING_REGISTRATIONS.add(interpreter, task);
     }
 
     public static void removeInterpreter(Interpreter interpreter)
     {
-        Future<?> future = ACTIVE_INTEPRETERS.remove(interpreter);
-        Objects.requireNonNull(future, "Tried to remove unregistered interpreter");
-        future.cancel(false);
+        PENDING_REGISTRATIONS.remove(interpreter);
+    }
+
+    private static void applyPendingRegistrations()
+    {
+        if (PENDING_REGISTRATIONS.isEmpty()) return;
+
+        // Interpreters which got removed again before their registration was applied are never scheduled
+        int[] slot = new int[1];
+        PENDING_REGISTRATIONS.apply(ACTIVE_INTEPRETERS, (interpreter, task) ->
+        {
+            interpreter.setWakeupListener(task::wakeup);
+            task.updateHibernation();
+            task.start((slot[0] % STARTUP_STAGGER_SLOTS) * TASK_INTERVAL_NANOS);
+            slot[0]++;
+        }, (interpreter, task) ->
+        {
+            interpreter.setWakeupListener(null);
+            task.cancel();
+        });
     }
 
     private static void onServerStarting(ServerAboutToStartEvent event)
     {
         currentServer = event.getServer();
-        executors = Executors.newScheduledThreadPool(1, Thread.ofVirtual().factory());
+        scheduler = Executors.newScheduledThreadPool(1, Thread.ofVirtual().factory());
+        int threads = ServerConfig.interpreterThreads;
+        if (threads <= 0)
+        {
+            threads = Math.max(Runtime.getRuntime().availableProcessors() - RESERVED_CORES, 1);
+        }
+        workers = createWorkerPool(threads);
+    }
+
+    @VisibleForTesting
+    public static ForkJoinPool createWorkerPool(int threads)
+    {
+        AtomicInteger workerIndex = new AtomicInteger(0);
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool ->
+        {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("RCU Interpreter Worker #" + workerIndex.getAndIncrement());
+            return thread;
+        };
+        // Async mode processes tasks submitted to a worker in FIFO order, interpreter tasks never join each other
+        return new ForkJoinPool(threads, factory, null, true);
+    }
+
+    private static void onServerTickPre(ServerTickEvent.Pre event)
+    {
+        applyPendingRegistrations();
+        if (!ServerConfig.tickSynchronous || ACTIVE_INTEPRETERS.isEmpty()) return;
+
+        Map<SerialPort, InterpreterTask> tasksByPort = new HashMap<>(ACTIVE_INTEPRETERS.size());
+        for (InterpreterTask task : ACTIVE_INTEPRETERS.values())
+        {
+            tasksByPort.put(task.interpreter.getSerialPort(), task);
+        }
+
+        long start = System.nanoTime();
+        List<Callable<Object>> ticks = new ArrayList<>(ACTIVE_INTEPRETERS.size());
+        for (InterpreterTask task : ACTIVE_INTEPRETERS.values())
+        {
+            SerialPort partnerPort = task.interpreter.getSerialPort().getPartner();
+            InterpreterTask partner = partnerPort != null ? tasksByPort.get(partnerPort) : null;
+            if (partner == null)
+            {
+                ticks.add(Executors.callable(task::runTick));
+            }
+            else if (task.pos.compareTo(partner.pos) < 0)
+            {
+                // Linked interpreters run one after the other in a fixed order, otherwise the point in the tick at
+                // which a frame arrives would depend on thread timing
+                ticks.add(Executors.callable(() ->
+                {
+                    task.runTick();
+                    partner.runTick();
+                }));
+            }
+        }
+        for (Future<Object> tick : workers.invokeAll(ticks))
+        {
+            try
+            {
+                tick.get();
+            }
+            catch (ExecutionException e)
+            {
+                RedstoneControllerUnit.LOGGER.error("Interpreter failed to execute tick", e.getCause());
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        // The server thread waits for the interpreters, which makes the whole time count towards the tick time
+        tickSynchronousNanos = System.nanoTime() - start;
+    }
+
+    private static void onServerTickPost(ServerTickEvent.Post event)
+    {
+        long runnableFrequency = 0L;
+        for (InterpreterTask task : ACTIVE_INTEPRETERS.values())
+        {
+            if (task.isRunnable())
+            {
+                runnableFrequency += task.interpreter.getEffectiveFrequency();
+            }
+        }
+        // Background execution only competes with the server thread for the cores, spread it over all workers
+        long interpreterNanos = tickSynchronousNanos + BUSY_NANOS.sumThenReset() / workers.getParallelism();
+        tickSynchronousNanos = 0L;
+        ExecutionGovernor.update(event.getServer(), runnableFrequency, interpreterNanos);
+        if (event.getServer().getTickCount() % HIBERNATION_CHECK_INTERVAL == 0)
+        {
+            ACTIVE_INTEPRETERS.values().forEach(InterpreterTask::updateHibernation);
+        }
+    }
 
+    private static void applyConfig(Interpreter interpreter)
+    {
+        interpreter.getTimers().setClockSource(ServerConfig.timerClockSource);
+        interpreter.setExecutionEngine(ServerConfig.executionEngine);
+        interpreter.setCompileThreshold(ServerConfig.jitCompileThreshold);
+        interpreter.setIdleLoopParking(ServerConfig.parkIdleLoops);
+        interpreter.setDelayLoopSkipping(ServerConfig.skipDelayLoops);
+        interpreter.setExternalRamSize(ServerConfig.externalRamSize);
     }
 
     private static void onServerStopped(ServerStoppedEvent event)
     {
-        executors.shutdownNow();
+        scheduler.shutdownNow();
+        workers.shutdownNow();
         try
         {
-            if (!executors.awaitTermination(1000, TimeUnit.MILLISECONDS))
+            if (!scheduler.awaitTermination(1000, TimeUnit.MILLISECONDS) || !workers.awaitTermination(1000, TimeUnit.MILLISECONDS))
             {
                 RedstoneControllerUnit.LOGGER.error("Interpreter thread pool failed to shut down");
             }
         }
         catch (InterruptedException ignored) { }
-        executors = null;
+        scheduler = null;
+        workers = null;
         currentServer = null;
+        // Interpreters unloaded during shutdown are removed after the last tick, their tasks died with the executors
+        ACTIVE_INTEPRETERS.clear();
+        PENDING_REGISTRATIONS.clear();
+        BUSY_NANOS.reset();
+        tickSynchronousNanos = 0L;
+        ExecutionGovernor.reset();
     }
 
 
 
-    private record InterpreterTask(Interpreter interpreter) implements Runnable
+    /**
+     * Runs an interpreter and reschedules itself based on how soon the interpreter needs to run again.
+     * Interpreters which can't make progress until an external event happens stay asleep until their
+     * wakeup signal fires instead of being polled. The wakeup signal also cuts short sleeping for a fixed
+     * time, such as while waiting for the next timer overflow.
+     */
+    private static final class InterpreterTask implements Runnable
     {
+        private final Interpreter interpreter;
+        private final ServerLevel level;
+        private final BlockPos pos;
+        private final WakeableSchedule schedule;
+        private final ExecutionGovernor.Allowance allowance = new ExecutionGovernor.Allowance();
+        private volatile HibernationPolicy hibernation = HibernationPolicy.NONE;
+        private boolean hibernationPaused = false;
+        private long hibernationPausedNanos = 0L;
+
+        InterpreterTask(Interpreter interpreter, ServerLevel level, BlockPos pos, ScheduledExecutorService scheduler, ForkJoinPool workers)
+        {
+            this.interpreter = interpreter;
+            this.level = level;
+            this.pos = pos;
+            this.schedule = new WakeableSchedule(this, scheduler, workers);
+        }
+
+        void start(long delayNanos)
+        {
+            schedule.sleep(delayNanos);
+        }
+
         @Override
         public void run()
         {
+            if (ServerConfig.tickSynchronous)
+            {
+                // Executed by the server tick, only check back occasionally whether the mode was switched
+                schedule.runAfter(STANDBY_INTERVAL_NANOS);
+                return;
+            }
+
+            long delay = TASK_INTERVAL_NANOS;
             if (!currentServer.isPaused())
             {
-                if (!interpreter().isPaused() || interpreter.isStepRequested())
+                long start = System.nanoTime();
+                interpreter.processCommands();
+                applyConfig(interpreter);
+                if (applyHibernation())
+                {
+                    if (!interpreter.isPaused())
+                    {
+                        long maxBacklog = TimeUnit.MILLISECONDS.toNanos(ServerConfig.maxCatchUpMillis);
+                        long timeLimit = TimeUnit.MICROSECONDS.toNanos(ServerConfig.sliceTimeLimitMicros);
+                        long now = System.nanoTime();
+                        int budget = allowance.acquire(interpreter, now, ServerConfig.instructionsPerSlice);
+                        allowance.consume(interpreter.runOwedCycles(now, maxBacklog, budget, timeLimit));
+                    }
+                    else if (interpreter.isStepRequested())
+                    {
+                        interpreter.run();
+                    }
+                    delay = interpreter.getSleepNanos(TASK_INTERVAL_NANOS);
+                }
+                else
+                {
+                    // Woken up again by the hibernation check once the interpreter is attended
+                    delay = Interpreter.SLEEP_UNTIL_WOKEN;
+                }
+                BUSY_NANOS.add(System.nanoTime() - start);
+            }
+            schedule.sleep(delay);
+        }
+
+        void runTick()
+        {
+            interpreter.processCommands();
+            applyConfig(interpreter);
+            if (!applyHibernation()) return;
+
+            if (!interpreter.isPaused())
+            {
+                // The instruction budget isn't enforced here since skipping cycles would break determinism
+                ExecutionGovernor.recordExecuted(interpreter.runTickCycles());
+            }
+            else if (interpreter.isStepRequested())
+            {
+                interpreter.run();
+            }
+        }
+
+        boolean isRunnable()
+        {
+            return hibernation != HibernationPolicy.PAUSE && interpreter.isRunnable();
+        }
+
+        /**
+         * Re-evaluates whether the interpreter is attended, must be called on the server thread
+         */
+        void updateHibernation()
+        {
+            HibernationPolicy policy = ServerConfig.hibernationPolicy;
+            if (policy != HibernationPolicy.NONE && isAttended())
+            {
+                policy = HibernationPolicy.NONE;
+            }
+            if (policy != hibernation)
+            {
+                hibernation = policy;
+                wakeup();
+            }
+        }
+
+        private boolean isAttended()
+        {
+            if (!level.isPositionEntityTicking(pos))
+            {
+                return false;
+            }
+            int range = ServerConfig.hibernationPlayerRange;
+            return range <= 0 || level.hasNearbyAlivePlayer(pos.getX() + .5D, pos.getY() + .5D, pos.getZ() + .5D, range);
+        }
+
+        /**
+         * Applies the current hibernation state to the interpreter
+         *
+         * @return false if the interpreter must not execute because it is paused by hibernation
+         */
+        private boolean applyHibernation()
+        {
+            HibernationPolicy policy = hibernation;
+            if (policy == HibernationPolicy.PAUSE)
+            {
+                if (!hibernationPaused)
                 {
-                    interpreter.run();
+                    hibernationPaused = true;
+                    hibernationPausedNanos = System.nanoTime();
                 }
+                return false;
+            }
+
+            if (hibernationPaused)
+            {
+                hibernationPaused = false;
+                interpreter.skipTime(System.nanoTime() - hibernationPausedNanos, ServerConfig.hibernationCatchUpTimers);
             }
+            interpreter.setClockDivisor(policy == HibernationPolicy.THROTTLE ? ServerConfig.hibernationThrottleDivisor : 1);
+            return true;
+        }
+
+        void wakeup()
+        {
+            schedule.wakeup();
+        }
+
+        void cancel()
+        {
+            schedule.cancel();
         }
     }
 }
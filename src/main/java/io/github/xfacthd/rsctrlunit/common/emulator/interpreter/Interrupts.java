@@ -5,98 +5,125 @@ import com.mojang.serialization.codecs.RecordCodecBuilder;
 import io.github.xfacthd.rsctrlunit.common.emulator.util.Constants;
 import io.github.xfacthd.rsctrlunit.common.util.Utils;
 import net.minecraft.nbt.CompoundTag;
+import org.jetbrains.annotations.Nullable;
 
+import java.nio.ByteBuffer;
+
+/**
+ * Keeps a mask of the interrupts which can be serviced right now, which is recomputed whenever IE, IP, TCON or
+ * SCON change or an ISR is entered or left. Checking for a pending interrupt before each instruction is therefore
+ * a single comparison of that mask.
+ */
 public final class Interrupts
 {
+    static final int STATE_SIZE = 2;
     private static final int NO_ISR = -1;
+    private static final int SOURCE_COUNT = 5;
+    private static final int SOURCE_SERIAL = 4;
     private static final int[] ISR_ADDRESSES = new int[] {
             0x0003, // External 0
             0x000B, // Timer 0
             0x0013, // External 1
-            0x001B  // Timer 1
+            0x001B, // Timer 1
+            0x0023  // Serial
     };
     private static final int[] TRIGGER_MASKS = new int[] {
-            0b00000001, // External 0
-            0b00000100, // Timer 0
-            0b00100000, // External 1
-            0b10000000  // Timer 1
+            0b00000010, // External 0
+            0b00100000, // Timer 0
+            0b00001000, // External 1
+            0b10000000, // Timer 1
+            0b00000011  // Serial, stored in SCON
     };
+    // Preallocated descriptors, indexed by priority and source
+    private static final ISR[][] ISRS = new ISR[2][SOURCE_COUNT];
     private static final int MASK_ENABLE_ALL = 0b10000000;
+    private static final int MASK_SOURCES = (1 << SOURCE_COUNT) - 1;
+    private static final int SHIFT_HIGH_PRIO = 8;
+    private static final int INDEX_TCON = Constants.ADDRESS_TCON - Constants.SFR_START;
+    private static final int INDEX_SCON = Constants.ADDRESS_SCON - Constants.SFR_START;
+    private static final int INDEX_IE = Constants.ADDRESS_IE - Constants.SFR_START;
+    private static final int INDEX_IP = Constants.ADDRESS_IP - Constants.SFR_START;
+
+    static
+    {
+        for (int i = 0; i < SOURCE_COUNT; i++)
+        {
+            ISRS[0][i] = new ISR(i, ISR_ADDRESSES[i], false);
+            ISRS[1][i] = new ISR(i, ISR_ADDRESSES[i], true);
+        }
+    }
 
-    private final RAM ram;
+    private final byte[] sfr;
     private ISR activeIsrHighPrio = null;
     private ISR activeIsrLowPrio = null;
+    // Serviceable high priority sources in the upper byte, low priority sources in the lower byte
+    private int serviceable = 0;
 
     Interrupts(RAM ram)
     {
-        this.ram = ram;
+        this.sfr = ram.getRawSfrArray();
     }
 
     int run()
     {
-        byte ie = ram.readByte(Constants.ADDRESS_IE);
-        if ((ie & MASK_ENABLE_ALL) == 0)
+        if (serviceable == 0)
         {
             return NO_ISR;
         }
 
-        byte ip = ram.readByte(Constants.ADDRESS_IP);
-        // All interrupt trigger bits except those for the serial port are stored in TCON
-        byte tcon = ram.readByte(Constants.ADDRESS_TCON);
-
-        if (activeIsrHighPrio != null)
+        ISR isr;
+        if ((serviceable >>> SHIFT_HIGH_PRIO) != 0)
         {
-            return NO_ISR;
+            isr = ISRS[1][Integer.numberOfTrailingZeros(serviceable >>> SHIFT_HIGH_PRIO)];
+            activeIsrHighPrio = isr;
         }
-
-        activeIsrHighPrio = findNextInterrupt(true, ie, ip, tcon);
-        if (activeIsrHighPrio != null)
+        else
         {
-            return activeIsrHighPrio.isrAddress;
+            isr = ISRS[0][Integer.numberOfTrailingZeros(serviceable)];
+            activeIsrLowPrio = isr;
         }
-
-        if (activeIsrLowPrio != null)
-        {
-            return NO_ISR;
-        }
-
-        activeIsrLowPrio = findNextInterrupt(false, ie, ip, tcon);
-        if (activeIsrLowPrio != null)
+        // The serial port flags have to be cleared by the ISR
+        if (isr.index != SOURCE_SERIAL)
         {
-            return activeIsrLowPrio.isrAddress;
+            sfr[INDEX_TCON] &= (byte) ~TRIGGER_MASKS[isr.index];
         }
-
-        return NO_ISR;
+        update();
+        return isr.isrAddress;
     }
 
-    private ISR findNextInterrupt(boolean serviceHighPrio, byte ie, byte ip, byte tcon)
+    /**
+     * Recompute the mask of serviceable interrupts, must be called whenever IE, IP, TCON or SCON change
+     */
+    void update()
     {
-        // 8051 technically has 5 interrupts but the serial port is unsupported, so its interrupt is ignored
-        for (int i = 0; i < 4; i++)
+        byte ie = sfr[INDEX_IE];
+        if ((ie & MASK_ENABLE_ALL) == 0 || activeIsrHighPrio != null)
         {
-            // Interrupt may have switched priority while its ISR is running, ignore
-            if (activeIsrHighPrio != null && activeIsrHighPrio.index == i) continue;
-            if (activeIsrLowPrio != null && activeIsrLowPrio.index == i) continue;
-
-            if ((ie & (1 << i)) == 0)
-            {
-                continue;
-            }
+            serviceable = 0;
+            return;
+        }
 
-            boolean isHighPrio = (ip & (1 << i)) != 0;
-            if (isHighPrio != serviceHighPrio)
+        byte tcon = sfr[INDEX_TCON];
+        int triggered = (sfr[INDEX_SCON] & TRIGGER_MASKS[SOURCE_SERIAL]) != 0 ? (1 << SOURCE_SERIAL) : 0;
+        for (int i = 0; i < SOURCE_SERIAL; i++)
+        {
+            if ((tcon & TRIGGER_MASKS[i]) != 0)
             {
-                continue;
+                triggered |= 1 << i;
             }
+        }
 
-            int mask = TRIGGER_MASKS[i];
-            if ((tcon & mask) != 0)
-            {
-                ram.write(Constants.ADDRESS_TCON, tcon & ~mask);
-                return new ISR(i, ISR_ADDRESSES[i], isHighPrio);
-            }
+        int pending = triggered & ie & MASK_SOURCES;
+        // Interrupt may have switched priority while its ISR is running, ignore
+        if (activeIsrLowPrio != null)
+        {
+            pending &= ~(1 << activeIsrLowPrio.index);
         }
-        return null;
+
+        int ip = sfr[INDEX_IP];
+        int highPrio = pending & ip;
+        int lowPrio = activeIsrLowPrio != null ? 0 : pending & ~ip;
+        serviceable = (highPrio << SHIFT_HIGH_PRIO) | lowPrio;
     }
 
     public void returnFromIsr()
@@ -109,6 +136,7 @@ public final class Interrupts
         {
             activeIsrLowPrio = null;
         }
+        update();
     }
 
     public void load(CompoundTag tag)
@@ -121,24 +149,31 @@ public final class Interrupts
         {
             activeIsrLowPrio = Utils.fromNbt(ISR.CODEC, tag.getCompound("isr_low_prio"), null);
         }
+        update();
     }
 
-    public CompoundTag save()
+    void readState(ByteBuffer buffer)
     {
-        CompoundTag tag = new CompoundTag();
-        if (activeIsrHighPrio != null)
-        {
-            tag.put("isr_high_prio", Utils.toNbt(ISR.CODEC, activeIsrHighPrio));
-        }
-        if (activeIsrLowPrio != null)
-        {
-            tag.put("isr_low_prio", Utils.toNbt(ISR.CODEC, activeIsrLowPrio));
-        }
-        return tag;
+        activeIsrHighPrio = readIsr(buffer.get(), true);
+        activeIsrLowPrio = readIsr(buffer.get(), false);
+        update();
+    }
+
+    @Nullable
+    private static ISR readIsr(int index, boolean highPriority)
+    {
+        return index >= 0 && index < SOURCE_COUNT ? ISRS[highPriority ? 1 : 0][index] : null;
+    }
+
+    void writeState(ByteBuffer buffer)
+    {
+        buffer.put((byte) (activeIsrHighPrio != null ? activeIsrHighPrio.index : NO_ISR));
+        buffer.put((byte) (activeIsrLowPrio != null ? activeIsrLowPrio.index : NO_ISR));
     }
 
     private record ISR(int index, int isrAddress, boolean highPriority)
     {
+        // Only used to load interrupt states saved before the binary state format was introduced
         private static final Codec<ISR> CODEC = RecordCodecBuilder.create(inst -> inst.group(
                 Codec.INT.fieldOf("index").forGetter(ISR::index),
                 Codec.INT.fieldOf("address").forGetter(ISR::isrAddress),
@@ -6,12 +6,50 @@ import io.github.xfacthd.rsctrlunit.common.emulator.util.Constants;
 
 import java.util.Arrays;
 
+/**
+ * Internal RAM and special function registers. Direct accesses to the upper half of the address space target the
+ * SFRs, indirect accesses target the upper half of the internal RAM.
+ * <p>
+ * SFRs with side effects are marked in the read and write hook tables, all other SFRs are plain array accesses.
+ * <p>
+ * The carry, auxiliary carry and overflow flags produced by additions and subtractions are deferred until the PSW
+ * is read through this class or the SFR array is retrieved. The same applies to the timer count registers, which
+ * are maintained lazily by {@link Timers}.
+ */
 public final class RAM
 {
+    private static final int PSW_INDEX = Constants.ADDRESS_STATUS_WORD - Constants.SFR_START;
+    private static final int MASK_PARITY = 0b00000001;
+    private static final int MASK_OVERFLOW = 0b00000100;
+    private static final int MASK_AUX_CARRY = 0b01000000;
+    private static final int MASK_CARRY = 0b10000000;
+    private static final int MASK_ARITHMETIC_FLAGS = MASK_CARRY | MASK_AUX_CARRY | MASK_OVERFLOW;
+    private static final int FLAGS_NONE = 0;
+    private static final int FLAGS_ADD = 1;
+    private static final int FLAGS_SUBTRACT = 2;
+    private static final long[] READ_HOOKS = createHookTable(
+            Constants.ADDRESS_IO_PORT0, Constants.ADDRESS_IO_PORT1, Constants.ADDRESS_IO_PORT2, Constants.ADDRESS_IO_PORT3,
+            Constants.ADDRESS_STATUS_WORD,
+            Constants.ADDRESS_TL0, Constants.ADDRESS_TL1, Constants.ADDRESS_TH0, Constants.ADDRESS_TH1
+    );
+    private static final long[] WRITE_HOOKS = createHookTable(
+            Constants.ADDRESS_IO_PORT0, Constants.ADDRESS_IO_PORT1, Constants.ADDRESS_IO_PORT2, Constants.ADDRESS_IO_PORT3,
+            Constants.ADDRESS_STATUS_WORD, Constants.ADDRESS_ACCUMULATOR,
+            Constants.ADDRESS_TCON, Constants.ADDRESS_TMOD,
+            Constants.ADDRESS_TL0, Constants.ADDRESS_TL1, Constants.ADDRESS_TH0, Constants.ADDRESS_TH1,
+            Constants.ADDRESS_SCON, Constants.ADDRESS_SBUF, Constants.ADDRESS_IE, Constants.ADDRESS_IP
+    );
+
     private final byte[] ram;
     private final byte[] sfr;
     private final IOPorts ioPorts;
-    private boolean updatingParity = false;
+    private Timers timers = null;
+    private Interrupts interrupts = null;
+    private SerialPort serial = null;
+    private int deferredFlags = FLAGS_NONE;
+    private int deferredLeft = 0;
+    private int deferredRight = 0;
+    private int deferredCarry = 0;
 
     public RAM(IOPorts ioPorts, int ramSize, int sfrSize)
     {
@@ -20,6 +58,21 @@ public final class RAM
         this.sfr = new byte[sfrSize];
     }
 
+    void setTimers(Timers timers)
+    {
+        this.timers = timers;
+    }
+
+    void setInterrupts(Interrupts interrupts)
+    {
+        this.interrupts = interrupts;
+    }
+
+    void setSerialPort(SerialPort serial)
+    {
+        this.serial = serial;
+    }
+
     public byte readByte(int address)
     {
         return readByte(address, true, false);
@@ -31,14 +84,22 @@ public final class RAM
         {
             return ram[address];
         }
-        return switch (address)
+        int index = address - Constants.SFR_START;
+        if (!isHooked(READ_HOOKS, index))
         {
-            case Constants.ADDRESS_IO_PORT0 -> readOutIfIO ? ioPorts.readOutputPort(0) : ioPorts.readInputPort(0);
-            case Constants.ADDRESS_IO_PORT1 -> readOutIfIO ? ioPorts.readOutputPort(1) : ioPorts.readInputPort(1);
-            case Constants.ADDRESS_IO_PORT2 -> readOutIfIO ? ioPorts.readOutputPort(2) : ioPorts.readInputPort(2);
-            case Constants.ADDRESS_IO_PORT3 -> readOutIfIO ? ioPorts.readOutputPort(3) : ioPorts.readInputPort(3);
-            default -> sfr[address - Constants.SFR_START];
-        };
+            return sfr[index];
+        }
+        if (address == Constants.ADDRESS_STATUS_WORD)
+        {
+            materializeFlags();
+            return sfr[index];
+        }
+        if (isTimerRegister(address))
+        {
+            return timers.readCount(address);
+        }
+        int port = getPortIndex(index);
+        return readOutIfIO ? ioPorts.readOutputPort(port) : ioPorts.readInputPort(port);
     }
 
     public int read(int address)
@@ -74,21 +135,50 @@ public final class RAM
             ram[address] = value;
             return;
         }
-        switch (address)
+        int index = address - Constants.SFR_START;
+        if (!isHooked(WRITE_HOOKS, index))
+        {
+            sfr[index] = value;
+            return;
+        }
+        if (address == Constants.ADDRESS_ACCUMULATOR)
         {
-            case Constants.ADDRESS_IO_PORT0 -> ioPorts.writeOutputPort(0, value);
-            case Constants.ADDRESS_IO_PORT1 -> ioPorts.writeOutputPort(1, value);
-            case Constants.ADDRESS_IO_PORT2 -> ioPorts.writeOutputPort(2, value);
-            case Constants.ADDRESS_IO_PORT3 -> ioPorts.writeOutputPort(3, value);
-            default ->
+            sfr[index] = value;
+            updateParity(value);
+        }
+        else if (address == Constants.ADDRESS_STATUS_WORD)
+        {
+            // A full write replaces the flags, pending ones must not be applied afterward
+            deferredFlags = FLAGS_NONE;
+            sfr[index] = value;
+        }
+        else if (isTimerRegister(address))
+        {
+            timers.writeRegister(address, value);
+            if (address == Constants.ADDRESS_TCON)
             {
-                sfr[address - Constants.SFR_START] = value;
-                if (address == Constants.ADDRESS_ACCUMULATOR)
-                {
-                    updateParity(value);
-                }
+                interrupts.update();
             }
         }
+        else if (address == Constants.ADDRESS_SCON)
+        {
+            serial.writeControl(value);
+            interrupts.update();
+        }
+        else if (address == Constants.ADDRESS_SBUF)
+        {
+            // SBUF reads return the last received frame, the transmitted one is not stored
+            serial.transmit(value);
+        }
+        else if (address == Constants.ADDRESS_IE || address == Constants.ADDRESS_IP)
+        {
+            sfr[index] = value;
+            interrupts.update();
+        }
+        else
+        {
+            ioPorts.writeOutputPort(getPortIndex(index), value);
+        }
     }
 
     public void write(int address, int value)
@@ -111,22 +201,80 @@ public final class RAM
         writeByte(address, data, true);
     }
 
-    private void updateParity(byte acc)
+    /**
+     * Read the PSW without materializing deferred flags, only the register bank select bits are guaranteed to be current
+     */
+    public byte peekStatusWord()
+    {
+        return sfr[PSW_INDEX];
+    }
+
+    /**
+     * Defer the flag updates of an addition of the given operands until the PSW is read
+     */
+    public void deferAddFlags(int acc, int value, int carryIn)
+    {
+        deferFlags(FLAGS_ADD, acc, value, carryIn);
+    }
+
+    /**
+     * Defer the flag updates of a subtraction with borrow of the given operands until the PSW is read
+     */
+    public void deferSubtractFlags(int acc, int value, int carryIn)
+    {
+        deferFlags(FLAGS_SUBTRACT, acc, value, carryIn);
+    }
+
+    private void deferFlags(int operation, int acc, int value, int carryIn)
+    {
+        deferredFlags = operation;
+        deferredLeft = acc;
+        deferredRight = value;
+        deferredCarry = carryIn;
+    }
+
+    void materializeFlags()
     {
-        if (updatingParity) return;
+        if (deferredFlags == FLAGS_NONE)
+        {
+            return;
+        }
 
-        updatingParity = true;
-        int parity = 0;
-        for (int i = 0; i < 8; i++)
+        int acc = deferredLeft;
+        int value = deferredRight;
+        int carryIn = deferredCarry;
+        boolean carry;
+        boolean auxCarry;
+        int signedResult;
+        if (deferredFlags == FLAGS_ADD)
         {
-            parity ^= ((acc >> i) & 0x1);
+            carry = acc + value + carryIn > 255;
+            auxCarry = (acc & 0xF) + (value & 0xF) + carryIn > 15;
+            signedResult = OpcodeHelpers.toSigned(acc) + OpcodeHelpers.toSigned(value) + carryIn;
         }
-        writeBit(Constants.BIT_ADDRESS_PARITY, BitWriteMode.of(parity != 0));
-        updatingParity = false;
+        else
+        {
+            value += carryIn;
+            carry = acc - value < 0;
+            auxCarry = (value & 0xF) > (acc & 0xF);
+            signedResult = OpcodeHelpers.toSigned(acc) - OpcodeHelpers.toSigned(value) - carryIn;
+        }
+        boolean overflow = signedResult < -128 || signedResult > 127;
+
+        int flags = (carry ? MASK_CARRY : 0) | (auxCarry ? MASK_AUX_CARRY : 0) | (overflow ? MASK_OVERFLOW : 0);
+        sfr[PSW_INDEX] = (byte) ((sfr[PSW_INDEX] & ~MASK_ARITHMETIC_FLAGS) | flags);
+        deferredFlags = FLAGS_NONE;
+    }
+
+    private void updateParity(byte acc)
+    {
+        int parity = Integer.bitCount(acc & 0xFF) & MASK_PARITY;
+        sfr[PSW_INDEX] = (byte) ((sfr[PSW_INDEX] & ~MASK_PARITY) | parity);
     }
 
     void reset()
     {
+        deferredFlags = FLAGS_NONE;
         Arrays.fill(ram, (byte) 0);
         Arrays.fill(sfr, (byte) 0);
         sfr[Constants.ADDRESS_IO_PORT0 - Constants.SFR_START] = 0; // Would be 0xFF on real hardware
@@ -140,13 +288,54 @@ public final class RAM
         sfr[Constants.ADDRESS_IP - Constants.SFR_START] &= (byte) 0b11100000;
     }
 
-    byte[] getRamArray()
+    public byte[] getRamArray()
     {
         return ram;
     }
 
-    byte[] getSfrArray()
+    public byte[] getSfrArray()
     {
+        materializeFlags();
+        if (timers != null)
+        {
+            timers.sync();
+        }
         return sfr;
     }
+
+    /**
+     * {@return the SFR array without bringing the PSW flags and timer counts up to date}
+     * Only the register bank select bits of the PSW are guaranteed to be current
+     */
+    public byte[] getRawSfrArray()
+    {
+        return sfr;
+    }
+
+    private static boolean isTimerRegister(int address)
+    {
+        return address >= Constants.ADDRESS_TCON && address <= Constants.ADDRESS_TH1;
+    }
+
+    private static int getPortIndex(int sfrIndex)
+    {
+        // The ports are located at the start of every second row of the SFR space
+        return sfrIndex >> 4;
+    }
+
+    private static boolean isHooked(long[] hooks, int sfrIndex)
+    {
+        return (hooks[sfrIndex >>> 6] & (1L << sfrIndex)) != 0;
+    }
+
+    private static long[] createHookTable(int... addresses)
+    {
+        long[] hooks = new long[Constants.SFR_SIZE / Long.SIZE];
+        for (int address : addresses)
+        {
+            int index = address - Constants.SFR_START;
+            hooks[index >>> 6] |= 1L << index;
+        }
+        return hooks;
+    }
 }
@@ -0,0 +1,102 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
+
+import io.github.xfacthd.rsctrlunit.RedstoneControllerUnit;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * Collects additions and removals of entries from any thread to apply them in bulk on the owning thread later.
+ * Only the last operation queued for a key takes effect, which allows an entry added and removed again before the
+ * queue got applied to be dropped without ever becoming active.
+ */
+public final class RegistrationQueue<K, V>
+{
+    private final Queue<Registration<K, V>> pending = new ConcurrentLinkedQueue<>();
+
+    public void add(K key, V value)
+    {
+        pending.add(new Registration<>(key, Objects.requireNonNull(value)));
+    }
+
+    public void remove(K key)
+    {
+        pending.add(new Registration<>(key, null));
+    }
+
+    public boolean isEmpty()
+    {
+        return pending.isEmpty();
+    }
+
+    public void clear()
+    {
+        pending.clear();
+    }
+
+    /**
+     * Applies all queued operations to the given map of active entries. An active entry replaced by a new addition
+     * is passed to the removal callback before the new entry is passed to the addition callback. Removals of keys
+     * which are neither active nor added earlier in the same batch are logged and skipped.
+     *
+     * @param active The map of active entries
+     * @param onAdded Called with every entry which became active, in the order they got added
+     * @param onRemoved Called with every entry which stopped being active
+     */
+    public void apply(Map<K, V> active, BiConsumer<K, V> onAdded, BiConsumer<K, V> onRemoved)
+    {
+        if (pending.isEmpty()) return;
+
+        // Keys are ordered by their last operation, which keeps additions in the order they were queued in
+        Map<K, Registration<K, V>> batch = new LinkedHashMap<>();
+        Set<K> addedInBatch = new HashSet<>();
+        Registration<K, V> registration;
+        while ((registration = pending.poll()) != null)
+        {
+            K key = registration.key();
+            if (registration.value() != null)
+            {
+                addedInBatch.add(key);
+            }
+            batch.remove(key);
+            batch.put(key, registration);
+        }
+
+        List<Registration<K, V>> additions = new ArrayList<>();
+        for (Registration<K, V> entry : batch.values())
+        {
+            K key = entry.key();
+            if (entry.value() != null)
+            {
+                additions.add(entry);
+                continue;
+            }
+
+            V removed = active.remove(key);
+            if (removed != null)
+            {
+                onRemoved.accept(key, removed);
+            }
+            else if (!addedInBatch.contains(key))
+            {
+                RedstoneControllerUnit.LOGGER.warn("Tried to remove unregistered entry {}, ignoring", key);
+            }
+        }
+
+        for (Registration<K, V> entry : additions)
+        {
+            V previous = active.put(entry.key(), entry.value());
+            if (previous != null && previous != entry.value())
+            {
+                onRemoved.accept(entry.key(), previous);
+            }
+            onAdded.accept(entry.key(), entry.value());
+        }
+    }
+
+
+
+    private record Registration<K, V>(K key, @Nullable V value) { }
+}
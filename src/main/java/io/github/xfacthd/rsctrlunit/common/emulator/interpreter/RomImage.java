@@ -0,0 +1,185 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
+
+import io.github.xfacthd.rsctrlunit.common.emulator.core.CPUCore;
+import io.github.xfacthd.rsctrlunit.common.emulator.core.CompiledBlock;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Read-only ROM image shared by all interpreters running the same program. Images are interned by the content
+ * of the program in a store which only holds them weakly, an image is dropped from the store once no interpreter
+ * uses it anymore. The instructions predecoded from the image by the {@link InstructionCache} and the blocks compiled
+ * from it by the {@link BlockCache} are shared as well.
+ * <p>
+ * Neither the image data nor the predecoded instructions must ever be modified.
+ */
+public final class RomImage
+{
+    private static final byte[] EMPTY_PROGRAM = new byte[0];
+    private static final Map<Key, ImageReference> IMAGES = new HashMap<>();
+    private static final ReferenceQueue<RomImage> COLLECTED_IMAGES = new ReferenceQueue<>();
+
+    private final Key key;
+    private final byte[] data;
+    private final int[][] instructions = new int[CPUCore.values().length][];
+    @SuppressWarnings("unchecked")
+    private final AtomicReferenceArray<CompiledBlock>[] compiledBlocks = new AtomicReferenceArray[CPUCore.values().length];
+
+    private RomImage(byte[] program, int size)
+    {
+        this.data = Arrays.copyOf(program, size);
+        this.key = new Key(data, Math.min(program.length, size));
+    }
+
+    /**
+     * {@return the shared image of the given size holding the given program}
+     */
+    public static RomImage acquire(byte[] program, int size)
+    {
+        synchronized (IMAGES)
+        {
+            expungeCollectedImages();
+            Key key = new Key(program, Math.min(program.length, size), size);
+            ImageReference ref = IMAGES.get(key);
+            RomImage image = ref != null ? ref.get() : null;
+            if (image == null)
+            {
+                image = new RomImage(program, size);
+                IMAGES.put(image.key, new ImageReference(image));
+            }
+            return image;
+        }
+    }
+
+    /**
+     * {@return the shared empty image of the given size}
+     */
+    public static RomImage acquireEmpty(int size)
+    {
+        return acquire(EMPTY_PROGRAM, size);
+    }
+
+    public byte[] getData()
+    {
+        return data;
+    }
+
+    /**
+     * {@return the length of the program this image was created from}
+     */
+    public int getProgramLength()
+    {
+        return key.length;
+    }
+
+    /**
+     * {@return the instructions of this image predecoded for the given core}
+     * The instructions are decoded with the given decoder by the first interpreter asking for them
+     */
+    int[] getInstructions(CPUCore core, Function<RomImage, int[]> decoder)
+    {
+        synchronized (instructions)
+        {
+            int[] decoded = instructions[core.ordinal()];
+            if (decoded == null)
+            {
+                decoded = decoder.apply(this);
+                instructions[core.ordinal()] = decoded;
+            }
+            return decoded;
+        }
+    }
+
+    /**
+     * {@return the table of blocks compiled from this image for the given core, indexed by their start address}
+     * The table is shared by all interpreters using this image and covers the length of the program
+     */
+    AtomicReferenceArray<CompiledBlock> getCompiledBlocks(CPUCore core)
+    {
+        synchronized (compiledBlocks)
+        {
+            AtomicReferenceArray<CompiledBlock> blocks = compiledBlocks[core.ordinal()];
+            if (blocks == null)
+            {
+                blocks = new AtomicReferenceArray<>(key.length);
+                compiledBlocks[core.ordinal()] = blocks;
+            }
+            return blocks;
+        }
+    }
+
+    public static int getImageCount()
+    {
+        synchronized (IMAGES)
+        {
+            expungeCollectedImages();
+            return IMAGES.size();
+        }
+    }
+
+    private static void expungeCollectedImages()
+    {
+        Reference<? extends RomImage> ref;
+        while ((ref = COLLECTED_IMAGES.poll()) != null)
+        {
+            IMAGES.remove(((ImageReference) ref).key, ref);
+        }
+    }
+
+    private static final class ImageReference extends WeakReference<RomImage>
+    {
+        private final Key key;
+
+        ImageReference(RomImage image)
+        {
+            super(image, COLLECTED_IMAGES);
+            this.key = image.key;
+        }
+    }
+
+    private record Key(byte[] program, int length, int size, int hash)
+    {
+        Key(byte[] data, int length)
+        {
+            this(data, length, data.length);
+        }
+
+        Key(byte[] program, int length, int size)
+        {
+            this(program, length, size, 31 * hash(program, length) + size);
+        }
+
+        private static int hash(byte[] program, int length)
+        {
+            int hash = 1;
+            for (int i = 0; i < length; i++)
+            {
+                hash = 31 * hash + program[i];
+            }
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return obj instanceof Key other &&
+                    hash == other.hash &&
+                    length == other.length &&
+                    size == other.size &&
+                    Arrays.equals(program, 0, length, other.program, 0, length);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
+
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded queue carrying the frames sent by one serial port to another. Each link has exactly one producer and one
+ * consumer, which allows it to be lock-free so neither interpreter ever blocks the other.
+ * <p>
+ * The other side is signalled after every frame added or taken. Signalling only on the transitions from empty and
+ * from full would rely on an index read before publishing, which may be outdated by then and lose the wakeup.
+ */
+public final class SerialLink
+{
+    public static final int CAPACITY = 256;
+    public static final int EMPTY = -1;
+    private static final int MASK = CAPACITY - 1;
+
+    private final short[] frames = new short[CAPACITY];
+    // Index of the next frame to be read, only written by the consumer
+    private final AtomicInteger head = new AtomicInteger();
+    // Index of the next frame to be written, only written by the producer
+    private final AtomicInteger tail = new AtomicInteger();
+    private final WakeupSignal producerSignal;
+    private final WakeupSignal consumerSignal;
+
+    @VisibleForTesting
+    public SerialLink(WakeupSignal producerSignal, WakeupSignal consumerSignal)
+    {
+        this.producerSignal = producerSignal;
+        this.consumerSignal = consumerSignal;
+    }
+
+    /**
+     * Append a frame, must only be called by the producer
+     *
+     * @return false if the link is full
+     */
+    @VisibleForTesting
+    public boolean offer(int frame)
+    {
+        int tail = this.tail.getPlain();
+        int head = this.head.getAcquire();
+        if (tail - head == CAPACITY)
+        {
+            return false;
+        }
+        frames[tail & MASK] = (short) frame;
+        this.tail.setRelease(tail + 1);
+        consumerSignal.signal();
+        return true;
+    }
+
+    /**
+     * Take the oldest frame, must only be called by the consumer
+     *
+     * @return the frame or {@link #EMPTY} if the link is empty
+     */
+    @VisibleForTesting
+    public int poll()
+    {
+        int head = this.head.getPlain();
+        int tail = this.tail.getAcquire();
+        if (head == tail)
+        {
+            return EMPTY;
+        }
+        int frame = frames[head & MASK];
+        this.head.setRelease(head + 1);
+        producerSignal.signal();
+        return frame;
+    }
+}
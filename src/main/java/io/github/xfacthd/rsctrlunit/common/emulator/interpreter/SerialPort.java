@@ -0,0 +1,365 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
+
+import io.github.xfacthd.rsctrlunit.common.emulator.util.Constants;
+import net.minecraft.nbt.CompoundTag;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+
+/**
+ *      +-----+-----+-----+-----+-----+-----+-----+-----+
+ * SCON | SM0 | SM1 | SM2 | REN | TB8 | RB8 | TI  | RI  |
+ *      +-----+-----+-----+-----+-----+-----+-----+-----+
+ *      SM0/SM1: 00 => 8bit shift register, 01 => 8bit UART, 10 => 9bit UART at fixed baud rate, 11 => 9bit UART
+ *      SM2: 1 => only receive frames with the 9th bit set (mode 2 and 3)
+ *      REN: 1 => reception enabled
+ *      TB8/RB8: 9th bit of the transmitted/received frame (mode 2 and 3), RB8 receives the stop bit in mode 1
+ *      TI/RI: 1 => frame transmitted/received, must be cleared by software
+ * <p>
+ * Frames are not shifted bit by bit, each frame is transferred as a whole once the time it takes at the configured
+ * baud rate has elapsed. The baud rate of mode 1 and 3 is derived from the reload value in TH1 as if Timer 1 was
+ * running in auto-reload mode, clocked by machine cycles, regardless of the actual timer configuration.
+ * <p>
+ * Transmitted frames are handed to the {@link SerialLink} connecting this port to the port of another controller
+ * and are dropped if the port is not connected. A transmission only completes once the link has room for the frame
+ * and a received frame is held back until RI was cleared, so no frame is lost when the receiver falls behind.
+ */
+public final class SerialPort
+{
+    static final int STATE_SIZE = 21;
+    private static final int MASK_RI = 0b00000001;
+    private static final int MASK_TI = 0b00000010;
+    private static final int MASK_RB8 = 0b00000100;
+    private static final int MASK_TB8 = 0b00001000;
+    private static final int MASK_REN = 0b00010000;
+    private static final int MASK_SM2 = 0b00100000;
+    private static final int SHIFT_MODE = 6;
+    private static final int MODE_SHIFT_REGISTER = 0;
+    private static final int MODE_8BIT_UART = 1;
+    private static final int MODE_9BIT_UART_FIXED = 2;
+    private static final int MASK_NINTH_BIT = 0x100;
+    private static final int INDEX_SCON = Constants.ADDRESS_SCON - Constants.SFR_START;
+    private static final int INDEX_SBUF = Constants.ADDRESS_SBUF - Constants.SFR_START;
+    private static final int INDEX_PCON = Constants.ADDRESS_PCON - Constants.SFR_START;
+    private static final int INDEX_TH1 = Constants.ADDRESS_TH1 - Constants.SFR_START;
+    private static final int NO_FRAME = -1;
+
+    private final byte[] sfr;
+    private final Interrupts interrupts;
+    private final WakeupSignal wakeupSignal;
+    @Nullable
+    private volatile SerialPort partner = null;
+    @Nullable
+    private volatile SerialLink txLink = null;
+    @Nullable
+    private volatile SerialLink rxLink = null;
+    private long cycles = 0;
+    private long nextEventCycles = Long.MAX_VALUE;
+    private int txFrame = NO_FRAME;
+    private long txDoneCycles = 0;
+    private boolean txStalled = false;
+    private int rxFrame = NO_FRAME;
+    private long rxDoneCycles = 0;
+    private boolean changedBySliceStart = false;
+
+    SerialPort(RAM ram, Interrupts interrupts, WakeupSignal wakeupSignal)
+    {
+        this.sfr = ram.getRawSfrArray();
+        this.interrupts = interrupts;
+        this.wakeupSignal = wakeupSignal;
+    }
+
+    /**
+     * Connect the given ports to each other, replacing any previous connections of either port.
+     * Must only be called from the server thread.
+     */
+    public static void connect(SerialPort first, SerialPort second)
+    {
+        first.disconnect();
+        second.disconnect();
+
+        SerialLink firstToSecond = new SerialLink(first.wakeupSignal, second.wakeupSignal);
+        SerialLink secondToFirst = new SerialLink(second.wakeupSignal, first.wakeupSignal);
+        first.txLink = firstToSecond;
+        second.rxLink = firstToSecond;
+        second.txLink = secondToFirst;
+        first.rxLink = secondToFirst;
+        first.partner = second;
+        second.partner = first;
+        first.wakeupSignal.signal();
+        second.wakeupSignal.signal();
+    }
+
+    /**
+     * Disconnect this port and its partner, frames still in flight on the links are dropped.
+     * Must only be called from the server thread.
+     */
+    public void disconnect()
+    {
+        SerialPort partner = this.partner;
+        if (partner == null) return;
+
+        partner.clearConnection();
+        clearConnection();
+    }
+
+    private void clearConnection()
+    {
+        partner = null;
+        txLink = null;
+        rxLink = null;
+        // Let a stalled transmission complete
+        wakeupSignal.signal();
+    }
+
+    @Nullable
+    public SerialPort getPartner()
+    {
+        return partner;
+    }
+
+    /**
+     * Advance the port after an instruction has been executed
+     *
+     * @param cycles The amount of machine cycles taken by the last executed instruction
+     */
+    void run(int cycles)
+    {
+        this.cycles += cycles;
+        if (this.cycles >= nextEventCycles)
+        {
+            if (txFrame != NO_FRAME && this.cycles >= txDoneCycles)
+            {
+                completeTransmission();
+            }
+            if (rxFrame != NO_FRAME && this.cycles >= rxDoneCycles)
+            {
+                completeReception();
+            }
+            reschedule();
+        }
+    }
+
+    /**
+     * Retry a transmission stalled by a full link and start receiving a frame if one arrived,
+     * must be called before each execution slice
+     *
+     * @param powerDown Whether the CPU is in power-down mode, in which case the port is not clocked and
+     *                  stalled transmissions and arrived frames are left pending
+     * @return true if TI or RI got set
+     */
+    boolean beginSlice(boolean powerDown)
+    {
+        if (powerDown)
+        {
+            changedBySliceStart = false;
+            return false;
+        }
+
+        byte scon = sfr[INDEX_SCON];
+        boolean stalled = txStalled;
+        int frame = rxFrame;
+        if (txStalled)
+        {
+            completeTransmission();
+        }
+        startReception();
+        reschedule();
+        changedBySliceStart = stalled != txStalled || frame != rxFrame || sfr[INDEX_SCON] != scon;
+        return sfr[INDEX_SCON] != scon;
+    }
+
+    /**
+     * {@return whether the last call to {@link #beginSlice()} completed a stalled transmission or started a reception}
+     */
+    boolean isChangedBySliceStart()
+    {
+        return changedBySliceStart;
+    }
+
+    /**
+     * Write SCON, a received frame held back while RI was set is completed once RI is cleared
+     */
+    void writeControl(byte value)
+    {
+        sfr[INDEX_SCON] = value;
+        if ((value & MASK_RI) == 0)
+        {
+            if (rxFrame != NO_FRAME && cycles >= rxDoneCycles)
+            {
+                completeReception();
+            }
+            startReception();
+        }
+        reschedule();
+    }
+
+    /**
+     * Write SBUF, which starts the transmission of a frame
+     */
+    void transmit(byte value)
+    {
+        int scon = sfr[INDEX_SCON];
+        int mode = (scon >>> SHIFT_MODE) & 0b11;
+        txFrame = value & 0xFF;
+        if (mode >= MODE_9BIT_UART_FIXED && (scon & MASK_TB8) != 0)
+        {
+            txFrame |= MASK_NINTH_BIT;
+        }
+        txDoneCycles = cycles + getFrameCycles();
+        txStalled = false;
+        reschedule();
+    }
+
+    private void completeTransmission()
+    {
+        SerialLink link = txLink;
+        if (link != null && !link.offer(txFrame))
+        {
+            txStalled = true;
+            return;
+        }
+        txFrame = NO_FRAME;
+        txStalled = false;
+        sfr[INDEX_SCON] |= MASK_TI;
+        interrupts.update();
+    }
+
+    private void startReception()
+    {
+        int scon = sfr[INDEX_SCON];
+        SerialLink link = rxLink;
+        if (rxFrame != NO_FRAME || (scon & MASK_REN) == 0 || link == null) return;
+
+        int frame = link.poll();
+        if (frame != SerialLink.EMPTY)
+        {
+            rxFrame = frame;
+            rxDoneCycles = cycles + getFrameCycles();
+        }
+    }
+
+    private void completeReception()
+    {
+        int scon = sfr[INDEX_SCON];
+        if ((scon & MASK_RI) != 0)
+        {
+            // Held back until RI is cleared
+            return;
+        }
+
+        int frame = rxFrame;
+        rxFrame = NO_FRAME;
+        int mode = (scon >>> SHIFT_MODE) & 0b11;
+        boolean ninthBit = (frame & MASK_NINTH_BIT) != 0;
+        if (mode >= MODE_9BIT_UART_FIXED && (scon & MASK_SM2) != 0 && !ninthBit)
+        {
+            // Frames addressed to other controllers are ignored in multiprocessor mode
+            startReception();
+            return;
+        }
+
+        sfr[INDEX_SBUF] = (byte) frame;
+        if (mode == MODE_8BIT_UART)
+        {
+            // The stop bit is always valid
+            scon |= MASK_RB8;
+        }
+        else if (mode != MODE_SHIFT_REGISTER)
+        {
+            scon = ninthBit ? (scon | MASK_RB8) : (scon & ~MASK_RB8);
+        }
+        sfr[INDEX_SCON] = (byte) (scon | MASK_RI);
+        interrupts.update();
+        // The next frame is received while software processes this one
+        startReception();
+    }
+
+    private void reschedule()
+    {
+        long next = Long.MAX_VALUE;
+        if (txFrame != NO_FRAME && !txStalled)
+        {
+            next = txDoneCycles;
+        }
+        if (rxFrame != NO_FRAME && (rxDoneCycles > cycles || (sfr[INDEX_SCON] & MASK_RI) == 0))
+        {
+            next = Math.min(next, rxDoneCycles);
+        }
+        nextEventCycles = next;
+    }
+
+    /**
+     * {@return the amount of machine cycles a frame takes at the current baud rate}
+     */
+    private long getFrameCycles()
+    {
+        int mode = (sfr[INDEX_SCON] >>> SHIFT_MODE) & 0b11;
+        int smod = (sfr[INDEX_PCON] & Constants.MASK_PCON_SMOD) != 0 ? 1 : 0;
+        return switch (mode)
+        {
+            // 8 data bits at one bit per machine cycle
+            case MODE_SHIFT_REGISTER -> 8;
+            // Start, 8 data, 9th and stop bit at 64 or 32 oscillator periods per bit
+            case MODE_9BIT_UART_FIXED -> Math.ceilDiv(11 * (64 >> smod), Constants.OSCILLATOR_PERIODS_PER_CYCLE);
+            // Start, 8 data, optional 9th and stop bit at 32 or 16 Timer 1 overflows per bit
+            default ->
+            {
+                int bits = mode == MODE_8BIT_UART ? 10 : 11;
+                int overflowCycles = 256 - (sfr[INDEX_TH1] & 0xFF);
+                yield (long) bits * (32 >> smod) * overflowCycles;
+            }
+        };
+    }
+
+    /**
+     * {@return the amount of machine cycles until the next frame completes}
+     * Returns {@link Long#MAX_VALUE} if no frame is in flight or the port is waiting for the link or software
+     */
+    public long getCyclesUntilEvent()
+    {
+        if (nextEventCycles == Long.MAX_VALUE)
+        {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(nextEventCycles - cycles, 0);
+    }
+
+    void reset()
+    {
+        txFrame = NO_FRAME;
+        txStalled = false;
+        rxFrame = NO_FRAME;
+        reschedule();
+    }
+
+    public void load(CompoundTag tag)
+    {
+        txFrame = tag.contains("tx_frame") ? tag.getInt("tx_frame") : NO_FRAME;
+        txDoneCycles = cycles + tag.getLong("tx_remaining");
+        txStalled = tag.getBoolean("tx_stalled");
+        rxFrame = tag.contains("rx_frame") ? tag.getInt("rx_frame") : NO_FRAME;
+        rxDoneCycles = cycles + tag.getLong("rx_remaining");
+        reschedule();
+    }
+
+    void readState(ByteBuffer buffer)
+    {
+        txFrame = buffer.getShort();
+        txDoneCycles = cycles + buffer.getLong();
+        txStalled = buffer.get() != 0;
+        rxFrame = buffer.getShort();
+        rxDoneCycles = cycles + buffer.getLong();
+        reschedule();
+    }
+
+    void writeState(ByteBuffer buffer)
+    {
+        // Frames have at most 9 bits, so they fit a short together with NO_FRAME
+        buffer.putShort((short) txFrame);
+        buffer.putLong(txFrame != NO_FRAME ? Math.max(txDoneCycles - cycles, 0) : 0);
+        buffer.put((byte) (txFrame != NO_FRAME && txStalled ? 1 : 0));
+        buffer.putShort((short) rxFrame);
+        buffer.putLong(rxFrame != NO_FRAME ? Math.max(rxDoneCycles - cycles, 0) : 0);
+    }
+}
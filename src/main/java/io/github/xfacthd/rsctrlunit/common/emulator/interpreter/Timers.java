@@ -1,9 +1,12 @@
 package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
 
-import io.github.xfacthd.rsctrlunit.common.emulator.util.BitWriteMode;
 import io.github.xfacthd.rsctrlunit.common.emulator.util.Constants;
+import io.github.xfacthd.rsctrlunit.common.emulator.util.TimerClockSource;
 import net.minecraft.nbt.CompoundTag;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 /**
  *      |           T1         |           T0         |
  *      +------+-----+----+----+------+-----+----+----+
@@ -18,11 +21,19 @@ import net.minecraft.nbt.CompoundTag;
  *      +-----+-----+-----+-----+-----+-----+-----+-----+
  *      TR: 0 => timer stopped, 1 => timer running
  *      TF: 1 => count register overflow
+ * <p>
+ * When clocked by machine cycles, the timers are not stepped with every instruction. Instead, the cycle at which
+ * the next overflow happens is computed whenever a timer register is written and the count registers are only
+ * brought up to date when they are read, when an overflow is due or when an input relevant to the timers changes.
+ * Writes to the timer registers bypassing {@link RAM} are picked up at the start of the next execution slice.
  */
 public final class Timers
 {
+    static final int STATE_SIZE = 1;
     private static final int MAX_COUNT_5BIT = (1 << 5) - 1;
     private static final int MAX_COUNT_8BIT = (1 << 8) - 1;
+    private static final int MAX_COUNT_13BIT = (1 << 13) - 1;
+    private static final int MAX_COUNT_16BIT = (1 << 16) - 1;
     private static final int MODE_13BIT = 0b00000000;
     private static final int MODE_16BIT = 0b00000001;
     private static final int MODE_8BIT_AUTORELOAD = 0b00000010;
@@ -30,136 +41,416 @@ public final class Timers
     private static final int MASK_MODE = MODE_8BIT_SPLIT;
     private static final int MASK_RUN0 = 0b00010000;
     private static final int MASK_RUN1 = 0b01000000;
+    private static final int MASK_RUN = MASK_RUN0 | MASK_RUN1;
     private static final int MASK_GATE0 = 0b00001000;
     private static final int MASK_INT0 = 0b00000100;
     private static final int MASK_CT_0 = 0b00000100;
+    // Gate and counter bits of both timers, any of them makes the count depend on port 3
+    private static final int MASK_INPUT_DEPENDENT = (MASK_GATE0 | MASK_CT_0) * 0b00010001;
+    private static final int INDEX_TCON = Constants.ADDRESS_TCON - Constants.SFR_START;
+    private static final int INDEX_TMOD = Constants.ADDRESS_TMOD - Constants.SFR_START;
+    private static final int INDEX_TL0 = Constants.ADDRESS_TL0 - Constants.SFR_START;
+    private static final int INDEX_TH0 = Constants.ADDRESS_TH0 - Constants.SFR_START;
+    private static final int INDEX_TH1 = Constants.ADDRESS_TH1 - Constants.SFR_START;
+    // Keeps the count arithmetic from overflowing, longer spans only preserve the overflow flags
+    private static final long MAX_ADVANCE = Integer.MAX_VALUE - MAX_COUNT_16BIT;
 
-    private final RAM ram;
+    private final byte[] sfr;
     private final IOPorts ioPorts;
+    private final Interrupts interrupts;
+    private final WakeupSignal wakeupSignal;
+    // TMOD and the count registers as of the last update, used to detect writes bypassing RAM
+    private final byte[] shadow = new byte[INDEX_TH1 - INDEX_TMOD + 1];
     private volatile boolean ticked = false;
+    private boolean tickApplied = false;
+    private TimerClockSource clockSource = TimerClockSource.GAME_TICK;
     private boolean lastTrigger0 = false;
     private boolean lastTrigger1 = false;
+    private byte shadowRun = 0;
+    private long cycles = 0;
+    private long syncedCycles = 0;
+    private long overflowCycles = Long.MAX_VALUE;
+    private boolean inputDependent = false;
+    private int inputVersion = 0;
+    private byte port3 = 0;
 
-    public Timers(RAM ram, IOPorts ioPorts)
+    public Timers(RAM ram, IOPorts ioPorts, Interrupts interrupts, WakeupSignal wakeupSignal)
     {
-        this.ram = ram;
+        this.sfr = ram.getRawSfrArray();
         this.ioPorts = ioPorts;
+        this.interrupts = interrupts;
+        this.wakeupSignal = wakeupSignal;
     }
 
     public void tickClock()
     {
         ticked = true;
+        wakeupSignal.signal();
+    }
+
+    public void setClockSource(TimerClockSource clockSource)
+    {
+        if (clockSource != this.clockSource)
+        {
+            sync();
+            this.clockSource = clockSource;
+            reschedule();
+        }
+    }
+
+    public TimerClockSource getClockSource()
+    {
+        return clockSource;
+    }
+
+    /**
+     * Advance the timers after an instruction has been executed
+     *
+     * @param cycles The amount of machine cycles taken by the last executed instruction
+     */
+    void run(int cycles)
+    {
+        this.cycles += cycles;
+        if (inputDependent && ioPorts.getInputVersion() != inputVersion)
+        {
+            // The last instruction already observes the new input state
+            syncTo(this.cycles - cycles);
+            pollInputs();
+            sync();
+            reschedule();
+        }
+        else if (this.cycles >= overflowCycles)
+        {
+            sync();
+            reschedule();
+        }
     }
 
-    void run()
+    /**
+     * Apply a pending game tick and pick up writes to the timer registers which bypassed {@link RAM},
+     * must be called before each execution slice
+     *
+     * @return true if a timer overflowed
+     */
+    boolean beginSlice()
     {
-        if (!ticked) return;
+        if (isModifiedExternally())
+        {
+            syncedCycles = cycles;
+            reschedule();
+        }
+        if (inputDependent && ioPorts.getInputVersion() != inputVersion)
+        {
+            // Gates see input changes from the start of the slice, edges are counted after the next instruction
+            sync();
+            port3 = ioPorts.readInputPort(3);
+            reschedule();
+        }
+
+        tickApplied = false;
+        if (clockSource != TimerClockSource.GAME_TICK || !ticked) return false;
         ticked = false;
+        tickApplied = true;
 
-        byte port3 = ioPorts.readInputPort(3);
-        boolean trigger0 = (port3 & 0b00010000) != 0;
-        boolean trigger1 = (port3 & 0b00100000) != 0;
+        byte tcon = sfr[INDEX_TCON];
+        byte port = ioPorts.readInputPort(3);
+        boolean trigger0 = (port & 0b00010000) != 0;
+        boolean trigger1 = (port & 0b00100000) != 0;
 
         // Counter mode triggers on falling edge
-        updateTimer(0, port3, lastTrigger0 && !trigger0);
-        updateTimer(1, port3, lastTrigger1 && !trigger1);
+        updateTimer(0, port, lastTrigger0 && !trigger0, 1);
+        updateTimer(1, port, lastTrigger1 && !trigger1, 1);
+
+        lastTrigger0 = trigger0;
+        lastTrigger1 = trigger1;
+        updateShadow();
+        return sfr[INDEX_TCON] != tcon;
+    }
+
+    /**
+     * {@return whether the last call to {@link #beginSlice()} applied a game tick to the timers}
+     */
+    boolean isTickApplied()
+    {
+        return tickApplied;
+    }
+
+    /**
+     * Advance the running timers by the given amount of increments at once, counters keep their state
+     *
+     * @param increments The amount of machine cycles or game ticks, depending on the clock source, to advance by
+     */
+    void advance(long increments)
+    {
+        if (increments <= 0) return;
+
+        sync();
+        int clamped = (int) Math.min(increments, MAX_ADVANCE);
+        updateTimer(0, port3, false, clamped);
+        updateTimer(1, port3, false, clamped);
+        reschedule();
+    }
+
+    /**
+     * Read a count register after bringing it up to date
+     */
+    byte readCount(int address)
+    {
+        sync();
+        return sfr[address - Constants.SFR_START];
+    }
+
+    /**
+     * Write TCON, TMOD or a count register and recompute when the next overflow happens
+     */
+    void writeRegister(int address, byte value)
+    {
+        int index = address - Constants.SFR_START;
+        if (index == INDEX_TCON && ((sfr[index] ^ value) & MASK_RUN) == 0)
+        {
+            // Only the flags change, which don't affect counting
+            sfr[index] = value;
+            return;
+        }
+        sync();
+        sfr[index] = value;
+        reschedule();
+    }
+
+    /**
+     * Bring the count registers up to date with the machine cycles counted so far
+     */
+    void sync()
+    {
+        syncTo(cycles);
+        updateShadow();
+    }
 
+    private void syncTo(long targetCycles)
+    {
+        long elapsed = targetCycles - syncedCycles;
+        if (elapsed <= 0) return;
+
+        syncedCycles = targetCycles;
+        if (clockSource != TimerClockSource.MACHINE_CYCLE) return;
+
+        int increments = (int) Math.min(elapsed, MAX_ADVANCE);
+        updateTimer(0, port3, false, increments);
+        updateTimer(1, port3, false, increments);
+    }
+
+    /**
+     * Count falling edges on the counter inputs since the last poll and latch the input state used for gating
+     */
+    private void pollInputs()
+    {
+        inputVersion = ioPorts.getInputVersion();
+        byte port = ioPorts.readInputPort(3);
+        boolean trigger0 = (port & 0b00010000) != 0;
+        boolean trigger1 = (port & 0b00100000) != 0;
+        countEdge(0, port, lastTrigger0 && !trigger0);
+        countEdge(1, port, lastTrigger1 && !trigger1);
         lastTrigger0 = trigger0;
         lastTrigger1 = trigger1;
+        port3 = port;
     }
 
-    private void updateTimer(int idx, byte port3, boolean extTrigger)
+    private void countEdge(int idx, byte port, boolean edge)
     {
-        byte tmod = ram.readByte(Constants.ADDRESS_TMOD);
+        if (edge && (sfr[INDEX_TMOD] & (MASK_CT_0 << (4 * idx))) != 0)
+        {
+            updateTimer(idx, port, true, 1);
+        }
+    }
+
+    /**
+     * Latch the input state without counting edges, the inputs are only tracked while a timer depends on them
+     */
+    private void latchInputs()
+    {
+        inputVersion = ioPorts.getInputVersion();
+        port3 = ioPorts.readInputPort(3);
+        lastTrigger0 = (port3 & 0b00010000) != 0;
+        lastTrigger1 = (port3 & 0b00100000) != 0;
+    }
+
+    private void reschedule()
+    {
+        updateShadow();
+        if (clockSource != TimerClockSource.MACHINE_CYCLE)
+        {
+            inputDependent = false;
+            overflowCycles = Long.MAX_VALUE;
+            return;
+        }
+
+        boolean dependent = isInputDependent();
+        if (dependent && !inputDependent)
+        {
+            latchInputs();
+        }
+        inputDependent = dependent;
+        long untilOverflow = Math.min(getCyclesUntilOverflow(0, port3), getCyclesUntilOverflow(1, port3));
+        overflowCycles = untilOverflow == Long.MAX_VALUE ? Long.MAX_VALUE : cycles + untilOverflow;
+    }
+
+    private boolean isInputDependent()
+    {
+        return clockSource == TimerClockSource.MACHINE_CYCLE && (sfr[INDEX_TMOD] & MASK_INPUT_DEPENDENT) != 0;
+    }
+
+    private void updateShadow()
+    {
+        System.arraycopy(sfr, INDEX_TMOD, shadow, 0, shadow.length);
+        shadowRun = (byte) (sfr[INDEX_TCON] & MASK_RUN);
+    }
+
+    private boolean isModifiedExternally()
+    {
+        return (sfr[INDEX_TCON] & MASK_RUN) != shadowRun || !Arrays.equals(sfr, INDEX_TMOD, INDEX_TH1 + 1, shadow, 0, shadow.length);
+    }
+
+    private void updateTimer(int idx, byte port3, boolean extTrigger, int increments)
+    {
+        byte tmod = sfr[INDEX_TMOD];
         int mode = (tmod >>> (4 * idx)) & MASK_MODE;
         if (idx == 1 && mode == MODE_8BIT_SPLIT) return;
 
         boolean counter = (tmod & (MASK_CT_0 << (4 * idx))) != 0;
-        if (counter && !extTrigger)
+        if (counter)
         {
-            return;
+            if (!extTrigger)
+            {
+                return;
+            }
+            increments = 1;
         }
 
-        byte tcon = ram.readByte(Constants.ADDRESS_TCON);
+        byte tcon = sfr[INDEX_TCON];
         boolean running = (tcon & (MASK_RUN0 << (2 * idx))) != 0 && isNotGated(port3, tmod, idx);
         if ((idx != 0 || mode != MODE_8BIT_SPLIT) && !running)
         {
             return;
         }
 
+        int indexLow = INDEX_TL0 + idx;
+        int indexHigh = INDEX_TH0 + idx;
         switch (mode)
         {
             case MODE_13BIT ->
             {
-                int countLow = ram.read(Constants.ADDRESS_TL0 + idx) + 1;
-                int countHigh = ram.read(Constants.ADDRESS_TH0 + idx);
-                if (countLow > MAX_COUNT_5BIT)
+                // Bits 5-7 of the LSB are not part of the count
+                int count = ((sfr[indexHigh] & 0xFF) << 5) | (sfr[indexLow] & MAX_COUNT_5BIT);
+                count += increments;
+                if (count > MAX_COUNT_13BIT)
                 {
-                    countLow = 0;
-                    countHigh++;
-                    if (countHigh > MAX_COUNT_8BIT)
-                    {
-                        countHigh = 0;
-                        setOverflow(idx);
-                    }
+                    count &= MAX_COUNT_13BIT;
+                    setOverflow(idx);
                 }
+                int countHigh = count >>> 5;
                 // Bits 5-7 of the LSB mirror bits 0-2 of the MSB
-                ram.write(Constants.ADDRESS_TL0 + idx, ((countHigh & 0b00000111) << 5) | (countLow & 0x1F));
-                ram.write(Constants.ADDRESS_TH0 + idx, countHigh);
+                sfr[indexLow] = (byte) (((countHigh & 0b00000111) << 5) | (count & MAX_COUNT_5BIT));
+                sfr[indexHigh] = (byte) countHigh;
             }
             case MODE_16BIT ->
             {
-                int countLow = ram.read(Constants.ADDRESS_TL0 + idx) + 1;
-                if (countLow > MAX_COUNT_8BIT)
+                int count = ((sfr[indexHigh] & 0xFF) << 8) | (sfr[indexLow] & 0xFF);
+                count += increments;
+                if (count > MAX_COUNT_16BIT)
                 {
-                    countLow = 0;
-                    int countHigh = ram.read(Constants.ADDRESS_TH0 + idx) + 1;
-                    if (countHigh > MAX_COUNT_8BIT)
-                    {
-                        countHigh = 0;
-                        setOverflow(idx);
-                    }
-                    ram.write(Constants.ADDRESS_TH0 + idx, countHigh);
+                    count &= MAX_COUNT_16BIT;
+                    setOverflow(idx);
                 }
-                ram.write(Constants.ADDRESS_TL0 + idx, countLow);
+                sfr[indexHigh] = (byte) (count >>> 8);
+                sfr[indexLow] = (byte) count;
             }
             case MODE_8BIT_AUTORELOAD ->
             {
-                int count = ram.read(Constants.ADDRESS_TL0 + idx) + 1;
+                int count = (sfr[indexLow] & 0xFF) + increments;
                 if (count > MAX_COUNT_8BIT)
                 {
-                    count = ram.readByte(Constants.ADDRESS_TH0 + idx) & 0xFF;
+                    int reload = sfr[indexHigh] & 0xFF;
+                    count = reload + ((count - MAX_COUNT_8BIT - 1) % (MAX_COUNT_8BIT + 1 - reload));
                     setOverflow(idx);
                 }
-                ram.write(Constants.ADDRESS_TL0 + idx, count);
+                sfr[indexLow] = (byte) count;
             }
             case MODE_8BIT_SPLIT ->
             {
                 if (running)
                 {
-                    int count = ram.read(Constants.ADDRESS_TL0) + 1;
+                    int count = (sfr[INDEX_TL0] & 0xFF) + increments;
                     if (count > MAX_COUNT_8BIT)
                     {
-                        count = 0;
+                        count &= MAX_COUNT_8BIT;
                         setOverflow(idx);
                     }
-                    ram.write(Constants.ADDRESS_TL0, count);
+                    sfr[INDEX_TL0] = (byte) count;
                 }
                 boolean runningUpper = (tcon & MASK_RUN1) != 0;
                 if (runningUpper)
                 {
-                    int count = ram.read(Constants.ADDRESS_TH0) + 1;
+                    int count = (sfr[INDEX_TH0] & 0xFF) + increments;
                     if (count > MAX_COUNT_8BIT)
                     {
-                        count = 0;
+                        count &= MAX_COUNT_8BIT;
                         setOverflow(1);
                     }
-                    ram.write(Constants.ADDRESS_TH0, count);
+                    sfr[INDEX_TH0] = (byte) count;
                 }
             }
         }
     }
 
+    /**
+     * {@return the amount of machine cycles until the next timer overflow, assuming the inputs don't change}
+     * Returns {@link Long#MAX_VALUE} if no timer is clocked by machine cycles
+     */
+    public long getCyclesUntilOverflow()
+    {
+        if (overflowCycles == Long.MAX_VALUE)
+        {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(overflowCycles - cycles, 0);
+    }
+
+    private long getCyclesUntilOverflow(int idx, byte port3)
+    {
+        byte tmod = sfr[INDEX_TMOD];
+        int mode = (tmod >>> (4 * idx)) & MASK_MODE;
+        boolean counter = (tmod & (MASK_CT_0 << (4 * idx))) != 0;
+        if ((idx == 1 && mode == MODE_8BIT_SPLIT) || counter)
+        {
+            return Long.MAX_VALUE;
+        }
+
+        byte tcon = sfr[INDEX_TCON];
+        boolean running = (tcon & (MASK_RUN0 << (2 * idx))) != 0 && isNotGated(port3, tmod, idx);
+        if (mode != MODE_8BIT_SPLIT && !running)
+        {
+            return Long.MAX_VALUE;
+        }
+
+        int countLow = sfr[INDEX_TL0 + idx] & 0xFF;
+        int countHigh = sfr[INDEX_TH0 + idx] & 0xFF;
+        return switch (mode)
+        {
+            case MODE_13BIT -> MAX_COUNT_13BIT + 1 - ((countHigh << 5) | (countLow & MAX_COUNT_5BIT));
+            case MODE_16BIT -> MAX_COUNT_16BIT + 1 - ((countHigh << 8) | countLow);
+            case MODE_8BIT_AUTORELOAD -> MAX_COUNT_8BIT + 1 - countLow;
+            default ->
+            {
+                long cycles = running ? MAX_COUNT_8BIT + 1 - countLow : Long.MAX_VALUE;
+                if ((tcon & MASK_RUN1) != 0)
+                {
+                    cycles = Math.min(cycles, MAX_COUNT_8BIT + 1 - countHigh);
+                }
+                yield cycles;
+            }
+        };
+    }
+
     private static boolean isNotGated(byte port3, byte tmod, int idx)
     {
         if ((tmod & (MASK_GATE0 << (4 * idx))) != 0)
@@ -171,20 +462,43 @@ public final class Timers
 
     private void setOverflow(int idx)
     {
-        ram.writeBit(Constants.BIT_ADDRESS_TIMER0_OVERFLOW + (idx * 2), BitWriteMode.SET);
+        sfr[INDEX_TCON] |= (byte) (MASK_RUN0 << (2 * idx + 1));
+        interrupts.update();
+    }
+
+    void reset()
+    {
+        syncedCycles = cycles;
+        reschedule();
     }
 
     public void load(CompoundTag tag)
     {
         lastTrigger0 = tag.getBoolean("last_trigger_0");
         lastTrigger1 = tag.getBoolean("last_trigger_1");
+        onLoaded();
+    }
+
+    void readState(ByteBuffer buffer)
+    {
+        byte flags = buffer.get();
+        lastTrigger0 = (flags & 0b01) != 0;
+        lastTrigger1 = (flags & 0b10) != 0;
+        onLoaded();
+    }
+
+    private void onLoaded()
+    {
+        port3 = ioPorts.readInputPort(3);
+        // Compare the loaded trigger states against the inputs before the next instruction
+        inputVersion = ioPorts.getInputVersion() - 1;
+        inputDependent = isInputDependent();
+        syncedCycles = cycles;
+        reschedule();
     }
 
-    public CompoundTag save()
+    void writeState(ByteBuffer buffer)
     {
-        CompoundTag tag = new CompoundTag();
-        tag.putBoolean("last_trigger_0", lastTrigger0);
-        tag.putBoolean("last_trigger_1", lastTrigger1);
-        return tag;
+        buffer.put((byte) ((lastTrigger0 ? 0b01 : 0) | (lastTrigger1 ? 0b10 : 0)));
     }
 }
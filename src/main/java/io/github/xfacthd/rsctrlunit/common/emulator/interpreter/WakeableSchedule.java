@@ -0,0 +1,145 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a task on a pool of worker threads, either right away or after sleeping for a given time. A sleeping task
+ * is run right away when it is woken up, regardless of whether it sleeps for a fixed time or until woken.
+ * <p>
+ * The task is only ever submitted by whoever ends its sleep, which is either the delayed dispatch or a wakeup,
+ * so the task never runs concurrently with itself.
+ */
+public final class WakeableSchedule
+{
+    private final Runnable task;
+    private final ScheduledExecutorService scheduler;
+    private final Executor workers;
+    private final AtomicBoolean wakeupRequested = new AtomicBoolean(false);
+    // Whoever resets this flag ends the sleep and owns the next run of the task
+    private final AtomicBoolean sleeping = new AtomicBoolean(false);
+    private volatile boolean cancelled = false;
+    @Nullable
+    private volatile Future<?> delayed = null;
+
+    public WakeableSchedule(Runnable task, ScheduledExecutorService scheduler, Executor workers)
+    {
+        this.task = task;
+        this.scheduler = scheduler;
+        this.workers = workers;
+    }
+
+    /**
+     * Sleeps for the given time, a wakeup in the meantime ends the sleep early. Must only be called by the task
+     * itself or before the task is first scheduled.
+     *
+     * @param delayNanos The time to sleep for or {@link Interpreter#SLEEP_UNTIL_WOKEN} to sleep until woken
+     */
+    public void sleep(long delayNanos)
+    {
+        if (delayNanos != Interpreter.SLEEP_UNTIL_WOKEN && delayNanos <= 0)
+        {
+            submit();
+            return;
+        }
+
+        sleeping.set(true);
+        if (delayNanos != Interpreter.SLEEP_UNTIL_WOKEN)
+        {
+            delayed = scheduleDelayed(this::dispatch, delayNanos);
+        }
+        // A wakeup may have been signalled while the last run was deciding to go to sleep
+        if (wakeupRequested.get())
+        {
+            endSleep();
+        }
+    }
+
+    /**
+     * Runs the task after the given time, ignoring any wakeups in the meantime. Must only be called by the task
+     * itself or before the task is first scheduled.
+     */
+    public void runAfter(long delayNanos)
+    {
+        delayed = scheduleDelayed(this::submit, delayNanos);
+    }
+
+    public void wakeup()
+    {
+        wakeupRequested.set(true);
+        endSleep();
+    }
+
+    public void cancel()
+    {
+        cancelled = true;
+        Future<?> delayed = this.delayed;
+        if (delayed != null)
+        {
+            delayed.cancel(false);
+        }
+    }
+
+    private void endSleep()
+    {
+        // Read before taking ownership, the task may go to sleep again with a new dispatch right after that
+        Future<?> delayed = this.delayed;
+        if (sleeping.compareAndSet(true, false))
+        {
+            if (delayed != null)
+            {
+                delayed.cancel(false);
+            }
+            submit();
+        }
+    }
+
+    private void dispatch()
+    {
+        if (sleeping.compareAndSet(true, false))
+        {
+            submit();
+        }
+    }
+
+    private void submit()
+    {
+        if (cancelled) return;
+
+        try
+        {
+            workers.execute(this::run);
+        }
+        catch (RejectedExecutionException ignored)
+        {
+            // Executor is shutting down
+        }
+    }
+
+    @Nullable
+    private Future<?> scheduleDelayed(Runnable action, long delayNanos)
+    {
+        if (cancelled) return null;
+
+        try
+        {
+            return scheduler.schedule(action, delayNanos, TimeUnit.NANOSECONDS);
+        }
+        catch (RejectedExecutionException ignored)
+        {
+            // Executor is shutting down
+            return null;
+        }
+    }
+
+    private void run()
+    {
+        if (cancelled) return;
+
+        // Reading the flag also makes everything signalled before the wakeup visible to the task
+        wakeupRequested.getAndSet(false);
+        task.run();
+    }
+}
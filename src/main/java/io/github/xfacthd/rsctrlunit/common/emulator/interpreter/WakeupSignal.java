@@ -0,0 +1,27 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.interpreter;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Notifies the scheduler that something happened which may allow a sleeping interpreter to make progress,
+ * such as an input port changing or a game tick advancing the timers
+ */
+public final class WakeupSignal
+{
+    @Nullable
+    private volatile Runnable listener = null;
+
+    public void setListener(@Nullable Runnable listener)
+    {
+        this.listener = listener;
+    }
+
+    public void signal()
+    {
+        Runnable listener = this.listener;
+        if (listener != null)
+        {
+            listener.run();
+        }
+    }
+}
@@ -12,6 +12,8 @@ public interface Opcode {
 
     int getOperandBytes();
 
+    int getCycles();
+
     byte toByte();
 
     Consumer<Interpreter.InterpreterContext> getOpcodeFunc();
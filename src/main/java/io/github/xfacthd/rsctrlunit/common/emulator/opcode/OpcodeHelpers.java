@@ -51,8 +51,7 @@ public final class OpcodeHelpers
 
     public static int getRegisterAddress(RAM ram, int register)
     {
-        byte psw = ram.readByte(Constants.ADDRESS_STATUS_WORD);
-        return getRegisterAddress(psw, register);
+        return getRegisterAddress(ram.peekStatusWord(), register);
     }
 
     public static int getRegisterAddress(byte psw, int register)
@@ -159,24 +158,8 @@ public final class OpcodeHelpers
         int acc = ram.read(Constants.ADDRESS_ACCUMULATOR);
         int iValue = value & 0xFF;
 
-        int result = acc + iValue + carryIn;
-        int signedResult = toSigned(acc) + toSigned(iValue) + carryIn;
-
-        boolean carry = false;
-        if (result > 255)
-        {
-            result -= 256;
-            carry = true;
-        }
-        ram.writeBit(Constants.BIT_ADDRESS_CARRY, BitWriteMode.of(carry));
-
-        boolean overflow = signedResult < -128 || signedResult > 127;
-        ram.writeBit(Constants.BIT_ADDRESS_OVERFLOW, BitWriteMode.of(overflow));
-
-        boolean auxCarry = ((acc & 0xF) + (iValue & 0xF) + carryIn) > 15;
-        ram.writeBit(Constants.BIT_ADDRESS_AUX_CARRY, BitWriteMode.of(auxCarry));
-
-        ram.write(Constants.ADDRESS_ACCUMULATOR, result);
+        ram.deferAddFlags(acc, iValue, carryIn);
+        ram.write(Constants.ADDRESS_ACCUMULATOR, acc + iValue + carryIn);
     }
 
     public static void addc(RAM ram, byte value)
@@ -188,26 +171,10 @@ public final class OpcodeHelpers
     {
         int acc = ram.read(Constants.ADDRESS_ACCUMULATOR);
         int carryIn = ram.readBit(Constants.BIT_ADDRESS_CARRY) ? 1 : 0;
-        int iValue = (value & 0xFF) + carryIn;
-
-        int result = acc - iValue;
-        int signedResult = toSigned(acc) - toSigned(iValue) - carryIn;
-
-        boolean carry = false;
-        if (result < 0)
-        {
-            result += 256;
-            carry = true;
-        }
-        ram.writeBit(Constants.BIT_ADDRESS_CARRY, BitWriteMode.of(carry));
-
-        boolean overflow = signedResult < -128 || signedResult > 127;
-        ram.writeBit(Constants.BIT_ADDRESS_OVERFLOW, BitWriteMode.of(overflow));
-
-        boolean auxCarry = (iValue & 0xF) > (acc & 0xF);
-        ram.writeBit(Constants.BIT_ADDRESS_AUX_CARRY, BitWriteMode.of(auxCarry));
+        int iValue = value & 0xFF;
 
-        ram.write(Constants.ADDRESS_ACCUMULATOR, result);
+        ram.deferSubtractFlags(acc, iValue, carryIn);
+        ram.write(Constants.ADDRESS_ACCUMULATOR, acc - iValue - carryIn);
     }
 
     public static void orMem(RAM ram, int address, byte value)
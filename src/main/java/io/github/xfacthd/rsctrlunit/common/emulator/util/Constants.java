@@ -6,9 +6,13 @@ public final class Constants
     public static final int RAM_SIZE = 256;
     public static final int SFR_SIZE = 128; // Size of the double-mapped RAM area (SFR via direct, data via indirect)
     public static final int SFR_START = RAM_SIZE - SFR_SIZE;
-    public static final int EXT_RAM_SIZE = 8192; // Could support up to 64k but this seems more reasonable
+    public static final int EXT_RAM_SIZE = 8192; // Default size, configurable up to 64k
     public static final int INITIAL_PROGRAM_COUNTER = 0;
     public static final int INITIAL_STACK_POINTER = 0x07;
+    public static final int DEFAULT_OSCILLATOR_FREQUENCY = 12_000_000;
+    public static final int MAX_OSCILLATOR_FREQUENCY = 100_000_000;
+    public static final int OSCILLATOR_PERIODS_PER_CYCLE = 12;
+    public static final int ISR_CALL_CYCLES = 2;
 
     public static final int[] REGISTER_BASE_ADDRESS = new int[] { 0x00, 0x08, 0x10, 0x18 };
 
@@ -37,6 +41,10 @@ public final class Constants
             ADDRESS_IO_PORT0, ADDRESS_IO_PORT1, ADDRESS_IO_PORT2, ADDRESS_IO_PORT3
     };
 
+    public static final int MASK_PCON_IDLE = 0b00000001;
+    public static final int MASK_PCON_POWER_DOWN = 0b00000010;
+    public static final int MASK_PCON_SMOD = 0b10000000;
+
     public static final int BIT_ADDRESS_TCON_IT0 = ADDRESS_TCON;
     public static final int BIT_ADDRESS_TCON_IE0 = ADDRESS_TCON + 1;
     public static final int BIT_ADDRESS_TCON_IT1 = ADDRESS_TCON + 2;
@@ -0,0 +1,13 @@
+package io.github.xfacthd.rsctrlunit.common.emulator.util;
+
+public enum TimerClockSource
+{
+    /**
+     * Timers advance once per game tick, independent of the emulated oscillator frequency
+     */
+    GAME_TICK,
+    /**
+     * Timers advance once per executed machine cycle, like on real hardware
+     */
+    MACHINE_CYCLE
+}
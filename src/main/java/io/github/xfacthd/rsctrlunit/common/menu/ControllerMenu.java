@@ -233,7 +233,7 @@ public final class ControllerMenu extends CardInventoryContainerMenu
     {
         if (interpreter != null)
         {
-            interpreter.writeLockGuarded(null, (interp, $) -> interp.getContext().reset(false));
+            interpreter.post(null, (interp, $) -> interp.getContext().reset(false));
         }
     }
 
@@ -1,8 +1,8 @@
 package io.github.xfacthd.rsctrlunit.common.net.payload.clientbound;
 
 import io.github.xfacthd.rsctrlunit.client.util.ClientAccess;
-import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.IOPorts;
 import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.Interpreter;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.InterpreterSnapshot;
 import io.github.xfacthd.rsctrlunit.common.emulator.util.Constants;
 import io.github.xfacthd.rsctrlunit.common.util.Utils;
 import io.netty.buffer.ByteBuf;
@@ -25,14 +25,11 @@ public record ClientboundUpdateStatusPayload(int windowId, InterpreterState stat
 
     public static ClientboundUpdateStatusPayload of(int windowId, Interpreter interpreter)
     {
-        return new ClientboundUpdateStatusPayload(windowId, interpreter.readLockGuarded(interp ->
-        {
-            byte[] ram = interp.getRam().clone();
-            byte[] sfr = interp.getSfr().clone();
-            IOPorts ports = interp.getIoPorts();
-            int programCounter = interp.getContext().getProgramCounter();
-            return new InterpreterState(ram, sfr, ports.getPortStatesOut(), ports.getPortStatesIn(), programCounter);
-        }));
+        // Sent every tick while the menu is open, the state from the previous request is recent enough
+        InterpreterSnapshot snapshot = interpreter.requestSnapshot();
+        return new ClientboundUpdateStatusPayload(windowId, new InterpreterState(
+                snapshot.ram(), snapshot.sfr(), snapshot.output(), snapshot.input(), snapshot.programCounter()
+        ));
     }
 
     public void handle(@SuppressWarnings("unused") IPayloadContext ctx)
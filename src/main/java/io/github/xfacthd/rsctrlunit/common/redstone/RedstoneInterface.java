@@ -2,6 +2,7 @@ package io.github.xfacthd.rsctrlunit.common.redstone;
 
 import io.github.xfacthd.rsctrlunit.common.blockentity.ControllerBlockEntity;
 import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.IOPorts;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.SerialPort;
 import io.github.xfacthd.rsctrlunit.common.net.RCUByteBufCodecs;
 import io.github.xfacthd.rsctrlunit.common.redstone.port.*;
 import io.github.xfacthd.rsctrlunit.common.util.Utils;
@@ -12,6 +13,7 @@ import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.world.level.block.state.BlockState;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.List;
@@ -22,6 +24,7 @@ public final class RedstoneInterface
 
     private final ControllerBlockEntity be;
     private final IOPorts ports;
+    private final SerialPort serial;
     private final PortConfig[] portConfigs = new PortConfig[4];
     private final byte[] portStatesOut = new byte[4];
     private final byte[] portStatesIn = new byte[4];
@@ -30,11 +33,15 @@ public final class RedstoneInterface
     // External to internal port
     private final int[] invPortMapping = new int[] { 0, 1, 2, 3 };
     private Direction facing = Direction.DOWN;
+    private boolean serialLinkDirty = true;
+    // Bumped whenever the persisted state changed
+    private int stateVersion = 0;
 
     public RedstoneInterface(ControllerBlockEntity be)
     {
         this.be = be;
         this.ports = be.getInterpreter().getIoPorts();
+        this.serial = be.getInterpreter().getSerialPort();
         Arrays.fill(portConfigs, NonePortConfig.INSTANCE);
     }
 
@@ -47,11 +54,64 @@ public final class RedstoneInterface
                 updateOutputOnSide(port, false);
             }
         }
+        if (serialLinkDirty)
+        {
+            updateSerialLink();
+        }
     }
 
     public void handleNeighborUpdate(BlockState state, BlockPos adjPos, Direction side)
     {
         updateInputOnSide(state, adjPos, side, false);
+        if (side == getSerialSide())
+        {
+            serialLinkDirty = true;
+        }
+    }
+
+    /**
+     * Connect the serial port to the adjacent controller on the side of the serial port config if that controller's
+     * serial port config faces this controller, otherwise disconnect it
+     */
+    private void updateSerialLink()
+    {
+        serialLinkDirty = false;
+        Direction side = getSerialSide();
+        if (side != null && be.level().getBlockEntity(be.getBlockPos().relative(side)) instanceof ControllerBlockEntity adjBe)
+        {
+            RedstoneInterface adjRedstone = adjBe.getRedstoneInterface();
+            if (adjRedstone.getSerialSide() == side.getOpposite())
+            {
+                if (serial.getPartner() != adjRedstone.serial)
+                {
+                    SerialPort.connect(serial, adjRedstone.serial);
+                }
+                return;
+            }
+        }
+        serial.disconnect();
+    }
+
+    /**
+     * {@return the side of the first port configured as a serial port or null if there is none}
+     */
+    @Nullable
+    public Direction getSerialSide()
+    {
+        for (int port = 0; port < portConfigs.length; port++)
+        {
+            if (portConfigs[port] instanceof SerialPortConfig)
+            {
+                return PortMapping.getPortSide(facing, portMapping[port]);
+            }
+        }
+        return null;
+    }
+
+    public void onRemoved()
+    {
+        serial.disconnect();
+        serialLinkDirty = true;
     }
 
     private void updateInputOnSide(BlockState state, BlockPos adjPos, Direction side, boolean force)
@@ -69,6 +129,7 @@ public final class RedstoneInterface
         {
             portStatesIn[port] = newState;
             ports.writeInputPort(port, newState);
+            stateVersion++;
             be.setChangedWithoutSignalUpdate();
         }
     }
@@ -78,7 +139,11 @@ public final class RedstoneInterface
         byte portState = ports.readOutputPort(port);
         if (portState != portStatesOut[port] || force)
         {
-            portStatesOut[port] = portState;
+            if (portState != portStatesOut[port])
+            {
+                portStatesOut[port] = portState;
+                stateVersion++;
+            }
             int extPort = portMapping[port];
             updateNeighborOnSide(PortMapping.getPortSide(facing, extPort));
         }
@@ -108,13 +173,18 @@ public final class RedstoneInterface
 
     public void setFacing(Direction facing)
     {
-        this.facing = facing;
+        if (facing != this.facing)
+        {
+            this.facing = facing;
+            serialLinkDirty = true;
+        }
     }
 
     public void setPortConfig(int port, PortConfig config)
     {
         PortConfig oldConfig = portConfigs[port];
         portConfigs[port] = config;
+        serialLinkDirty = true;
         int extPort = portMapping[port];
         if (oldConfig.getType() != config.getType())
         {
@@ -128,6 +198,7 @@ public final class RedstoneInterface
         Direction side = PortMapping.getPortSide(facing, extPort);
         updateInputOnSide(be.getBlockState(), be.getBlockPos().relative(side), side, true);
         updateOutputOnSide(port, true);
+        stateVersion++;
         be.setChangedWithoutSignalUpdate();
     }
 
@@ -135,6 +206,8 @@ public final class RedstoneInterface
     {
         Utils.copyIntArray(mapping, portMapping);
         setupInvPortMapping();
+        serialLinkDirty = true;
+        stateVersion++;
         be.markForSyncAndSave();
 
         BlockState state = be.getBlockState();
@@ -150,6 +223,14 @@ public final class RedstoneInterface
         be.level().setBlockAndUpdate(be.getBlockPos(), state);
     }
 
+    /**
+     * {@return a counter which changes whenever the state persisted by {@link #save()} changed}
+     */
+    public int getStateVersion()
+    {
+        return stateVersion;
+    }
+
     public Direction getFacing()
     {
         return facing;
@@ -210,6 +291,7 @@ public final class RedstoneInterface
         Utils.copyByteArray(tag.getByteArray("states_in"), portStatesIn);
         Utils.copyIntArray(tag.getIntArray("mapping"), portMapping);
         setupInvPortMapping();
+        serialLinkDirty = true;
     }
 
     public CompoundTag save()
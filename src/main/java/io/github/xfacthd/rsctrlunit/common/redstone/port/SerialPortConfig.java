@@ -0,0 +1,59 @@
+package io.github.xfacthd.rsctrlunit.common.redstone.port;
+
+import com.mojang.serialization.MapCodec;
+import io.github.xfacthd.rsctrlunit.common.util.property.RedstoneType;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * Connects the serial port of the controller to the serial port of the adjacent controller on this side,
+ * no redstone signals are emitted or received. Only the first port configured this way is connected.
+ */
+public final class SerialPortConfig implements PortConfig
+{
+    public static final SerialPortConfig INSTANCE = new SerialPortConfig();
+    public static final MapCodec<SerialPortConfig> MAP_CODEC = MapCodec.unit(INSTANCE);
+    public static final StreamCodec<ByteBuf, SerialPortConfig> STREAM_CODEC = StreamCodec.unit(INSTANCE);
+
+    private SerialPortConfig() { }
+
+    @Override
+    public int getRedstoneOutput(byte portState)
+    {
+        return 0;
+    }
+
+    @Override
+    public int getBundledOutput(byte portState, int channel)
+    {
+        return 0;
+    }
+
+    @Override
+    public byte updateInput(Level level, BlockState state, BlockPos pos, Direction facing, BlockPos adjPos, Direction side)
+    {
+        return 0;
+    }
+
+    @Override
+    public boolean hasInputs()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean hasOutputs()
+    {
+        return false;
+    }
+
+    @Override
+    public RedstoneType getType()
+    {
+        return RedstoneType.SERIAL;
+    }
+}
@@ -0,0 +1,367 @@
+package io.github.xfacthd.rsctrlunit.common.util;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.github.xfacthd.rsctrlunit.RedstoneControllerUnit;
+import io.github.xfacthd.rsctrlunit.common.emulator.util.Code;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.GlobalPos;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * World-wide store of the programs loaded into controllers, keyed by a hash of their content. Controllers only
+ * save the hash of their program, so a program loaded into many controllers is only saved once. Each entry tracks
+ * the positions of the controllers referencing it, including controllers in unloaded chunks.
+ * <p>
+ * Entries are only collected when the level is saved: an entry is dropped once no controller referenced it for
+ * a grace period, which allows a controller to pick its program back up after being replaced. References which
+ * weren't confirmed by a loaded controller for a long time are checked against the saved chunk and dropped if the
+ * controller is gone, which covers chunks deleted or edited outside the game.
+ * <p>
+ * Must only be used from the server thread.
+ */
+public final class CodeStore extends SavedData
+{
+    private static final String NAME = RedstoneControllerUnit.MOD_ID + "_code_store";
+    private static final Factory<CodeStore> FACTORY = new Factory<>(CodeStore::new, CodeStore::load, null);
+    private static final long NOT_ORPHANED = -1L;
+    // Five minutes of game time
+    private static final long ORPHAN_GRACE_TICKS = 6000L;
+    // Seven in-game days
+    private static final long VERIFY_INTERVAL_TICKS = 7L * 24000L;
+    private static final int MAX_VERIFICATIONS_PER_SAVE = 32;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<GlobalPos, Reference> references = new HashMap<>();
+    private final Set<GlobalPos> verifying = new HashSet<>();
+
+    public static void init()
+    {
+        NeoForge.EVENT_BUS.addListener(CodeStore::onLevelSave);
+    }
+
+    /**
+     * {@return the store of the given level's server}
+     * The store is shared by all dimensions and kept in the overworld's data storage
+     */
+    public static CodeStore get(ServerLevel level)
+    {
+        return level.getServer().overworld().getDataStorage().computeIfAbsent(FACTORY, NAME);
+    }
+
+    /**
+     * Reference the given program from the controller at the given position, replacing the program
+     * it previously referenced
+     *
+     * @return the hash of the program or null if the program is empty
+     */
+    @Nullable
+    public String reference(GlobalPos pos, Code code, long gameTime)
+    {
+        if (Code.EMPTY.equals(code))
+        {
+            release(pos, gameTime);
+            return null;
+        }
+
+        String hash = hash(code);
+        addReference(pos, hash, entries.computeIfAbsent(hash, $ -> new Entry(code)), gameTime);
+        return hash;
+    }
+
+    /**
+     * Reference the program with the given hash, which was saved with the controller at the given position
+     *
+     * @return the program or null if the store doesn't contain it
+     */
+    @Nullable
+    public Code restore(GlobalPos pos, String hash, long gameTime)
+    {
+        Entry entry = entries.get(hash);
+        if (entry == null)
+        {
+            return null;
+        }
+        addReference(pos, hash, entry, gameTime);
+        return entry.code;
+    }
+
+    private void addReference(GlobalPos pos, String hash, Entry entry, long gameTime)
+    {
+        Reference oldRef = references.put(pos, new Reference(hash, gameTime));
+        if (oldRef != null && !oldRef.hash.equals(hash))
+        {
+            removeReference(oldRef.hash, pos, gameTime);
+        }
+        entry.references.add(pos);
+        entry.orphanedSince = NOT_ORPHANED;
+        setDirty();
+    }
+
+    /**
+     * Drop the reference of the controller at the given position, its program is kept for a grace period
+     * if no other controller references it
+     */
+    public void release(GlobalPos pos, long gameTime)
+    {
+        Reference ref = references.remove(pos);
+        if (ref != null)
+        {
+            removeReference(ref.hash, pos, gameTime);
+            setDirty();
+        }
+    }
+
+    private void removeReference(String hash, GlobalPos pos, long gameTime)
+    {
+        Entry entry = entries.get(hash);
+        if (entry != null && entry.references.remove(pos) && entry.references.isEmpty())
+        {
+            entry.orphanedSince = gameTime;
+        }
+    }
+
+    @Nullable
+    public Code getCode(String hash)
+    {
+        Entry entry = entries.get(hash);
+        return entry != null ? entry.code : null;
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Drop all entries which haven't been referenced by any controller for the grace period
+     *
+     * @return the amount of dropped entries
+     */
+    @VisibleForTesting
+    public int removeOrphans(long gameTime)
+    {
+        int size = entries.size();
+        entries.values().removeIf(entry -> entry.orphanedSince != NOT_ORPHANED && gameTime - entry.orphanedSince >= ORPHAN_GRACE_TICKS);
+        int removed = size - entries.size();
+        if (removed > 0)
+        {
+            setDirty();
+        }
+        return removed;
+    }
+
+    private static void onLevelSave(LevelEvent.Save event)
+    {
+        if (event.getLevel() instanceof ServerLevel level && level.dimension() == Level.OVERWORLD)
+        {
+            // Runs after the data storage got saved, the changes are written by the next save
+            get(level).collectGarbage(level.getServer());
+        }
+    }
+
+    private void collectGarbage(MinecraftServer server)
+    {
+        long gameTime = server.overworld().getGameTime();
+        removeOrphans(gameTime);
+
+        int started = 0;
+        for (Map.Entry<GlobalPos, Reference> entry : List.copyOf(references.entrySet()))
+        {
+            if (started >= MAX_VERIFICATIONS_PER_SAVE) break;
+
+            GlobalPos pos = entry.getKey();
+            Reference ref = entry.getValue();
+            if (gameTime - ref.lastSeen < VERIFY_INTERVAL_TICKS || verifying.contains(pos)) continue;
+
+            ServerLevel level = server.getLevel(pos.dimension());
+            if (level == null)
+            {
+                // The dimension may only be missing temporarily because the mod adding it is not installed
+                continue;
+            }
+            if (level.isLoaded(pos.pos()))
+            {
+                // A controller in a loaded chunk references its program itself and releases it when destroyed
+                ref.lastSeen = gameTime;
+                setDirty();
+            }
+            else
+            {
+                verifyReference(server, level, pos, ref, gameTime);
+                started++;
+            }
+        }
+    }
+
+    private void verifyReference(MinecraftServer server, ServerLevel level, GlobalPos pos, Reference ref, long gameTime)
+    {
+        verifying.add(pos);
+        level.getChunkSource().chunkMap.read(new ChunkPos(pos.pos())).whenCompleteAsync((chunkTag, error) ->
+        {
+            verifying.remove(pos);
+            if (error != null)
+            {
+                RedstoneControllerUnit.LOGGER.error("Failed to read chunk of controller at {}", pos, error);
+                return;
+            }
+            // The controller got loaded or replaced in the meantime
+            if (references.get(pos) != ref || level.isLoaded(pos.pos())) return;
+
+            if (chunkTag.isPresent() && containsBlockEntity(chunkTag.get(), pos.pos()))
+            {
+                ref.lastSeen = gameTime;
+                setDirty();
+            }
+            else
+            {
+                RedstoneControllerUnit.LOGGER.info("Dropping program reference of controller at {} missing from its chunk", pos);
+                release(pos, gameTime);
+            }
+        }, server);
+    }
+
+    private static boolean containsBlockEntity(CompoundTag chunkTag, BlockPos pos)
+    {
+        ListTag blockEntities = chunkTag.getList("block_entities", Tag.TAG_COMPOUND);
+        for (int i = 0; i < blockEntities.size(); i++)
+        {
+            CompoundTag beTag = blockEntities.getCompound(i);
+            if (beTag.getInt("x") == pos.getX() && beTag.getInt("y") == pos.getY() && beTag.getInt("z") == pos.getZ())
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@return the SHA-256 hash of the given program as a hex string}
+     * The name is part of the hash to keep programs which only differ in their name apart
+     */
+    public static String hash(Code code)
+    {
+        Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putInt(code.name().length()).putString(code.name(), StandardCharsets.UTF_8);
+        hasher.putInt(code.core().length()).putString(code.core(), StandardCharsets.UTF_8);
+        hasher.putInt(code.rom().length).putBytes(code.rom());
+        // Iteration order of the label map depends on its history, sort them to get a stable hash
+        List<Int2ObjectMap.Entry<String>> labels = new ArrayList<>(code.labels().int2ObjectEntrySet());
+        labels.sort(Comparator.comparingInt(Int2ObjectMap.Entry::getIntKey));
+        for (Int2ObjectMap.Entry<String> label : labels)
+        {
+            hasher.putInt(label.getIntKey());
+            hasher.putInt(label.getValue().length()).putString(label.getValue(), StandardCharsets.UTF_8);
+        }
+        return hasher.hash().toString();
+    }
+
+    private static CodeStore load(CompoundTag tag, HolderLookup.Provider registries)
+    {
+        CodeStore store = new CodeStore();
+        ListTag entryList = tag.getList("entries", Tag.TAG_COMPOUND);
+        for (int i = 0; i < entryList.size(); i++)
+        {
+            CompoundTag entryTag = entryList.getCompound(i);
+            Code code = Utils.fromNbt(Code.CODEC, entryTag.getCompound("code"), Code.EMPTY);
+            if (Code.EMPTY.equals(code)) continue;
+
+            String hash = entryTag.getString("hash");
+            Entry entry = new Entry(code);
+            ListTag refList = entryTag.getList("references", Tag.TAG_COMPOUND);
+            for (int j = 0; j < refList.size(); j++)
+            {
+                CompoundTag refTag = refList.getCompound(j);
+                GlobalPos pos = Utils.fromNbt(GlobalPos.CODEC, refTag.getCompound("pos"), null);
+                if (pos == null) continue;
+
+                Reference oldRef = store.references.put(pos, new Reference(hash, refTag.getLong("last_seen")));
+                if (oldRef != null && !oldRef.hash.equals(hash))
+                {
+                    store.entries.get(oldRef.hash).references.remove(pos);
+                }
+                entry.references.add(pos);
+            }
+            entry.orphanedSince = entryTag.contains("orphaned_since") ? entryTag.getLong("orphaned_since") : NOT_ORPHANED;
+            store.entries.put(hash, entry);
+        }
+        // Entries which lost all their references to duplicates are collected by the next save
+        store.entries.values().forEach(entry ->
+        {
+            if (entry.references.isEmpty() && entry.orphanedSince == NOT_ORPHANED)
+            {
+                entry.orphanedSince = 0L;
+            }
+        });
+        return store;
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag, HolderLookup.Provider registries)
+    {
+        ListTag entryList = new ListTag();
+        entries.forEach((hash, entry) ->
+        {
+            CompoundTag entryTag = new CompoundTag();
+            entryTag.putString("hash", hash);
+            entryTag.put("code", Utils.toNbt(Code.CODEC, entry.code));
+            ListTag refList = new ListTag();
+            for (GlobalPos pos : entry.references)
+            {
+                CompoundTag refTag = new CompoundTag();
+                refTag.put("pos", Utils.toNbt(GlobalPos.CODEC, pos));
+                refTag.putLong("last_seen", references.get(pos).lastSeen);
+                refList.add(refTag);
+            }
+            entryTag.put("references", refList);
+            if (entry.orphanedSince != NOT_ORPHANED)
+            {
+                entryTag.putLong("orphaned_since", entry.orphanedSince);
+            }
+            entryList.add(entryTag);
+        });
+        tag.put("entries", entryList);
+        return tag;
+    }
+
+    private static final class Entry
+    {
+        private final Code code;
+        private final Set<GlobalPos> references = new HashSet<>();
+        private long orphanedSince = NOT_ORPHANED;
+
+        Entry(Code code)
+        {
+            this.code = code;
+        }
+    }
+
+    private static final class Reference
+    {
+        private final String hash;
+        // Game time at which a loaded controller last confirmed this reference
+        private long lastSeen;
+
+        Reference(String hash, long lastSeen)
+        {
+            this.hash = hash;
+            this.lastSeen = lastSeen;
+        }
+    }
+}
@@ -19,7 +19,8 @@ public enum RedstoneType implements StringRepresentable
 {
     NONE(NonePortConfig.MAP_CODEC, NonePortConfig.STREAM_CODEC),
     SINGLE(SinglePortConfig.MAP_CODEC, SinglePortConfig.STREAM_CODEC),
-    BUNDLED(BundledPortConfig.MAP_CODEC, BundledPortConfig.STREAM_CODEC);
+    BUNDLED(BundledPortConfig.MAP_CODEC, BundledPortConfig.STREAM_CODEC),
+    SERIAL(SerialPortConfig.MAP_CODEC, SerialPortConfig.STREAM_CODEC);
 
     public static final Codec<RedstoneType> CODEC = StringRepresentable.fromEnum(RedstoneType::values);
     public static final IntFunction<RedstoneType> BY_ID = ByIdMap.continuous(RedstoneType::ordinal, values(), ByIdMap.OutOfBoundsStrategy.ZERO);
@@ -1,14 +1,35 @@
 package io.github.xfacthd.rsctrlunit;
 
 import io.github.xfacthd.rsctrlunit.common.emulator.core.CPUCore;
+import io.github.xfacthd.rsctrlunit.common.emulator.core.CompiledBlock;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.ExecutionEngine;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.ExecutionGovernor;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.ExternalRam;
 import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.Interpreter;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.InterpreterSnapshot;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.InterpreterThreadPool;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.RegistrationQueue;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.SerialLink;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.SerialPort;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.WakeableSchedule;
+import io.github.xfacthd.rsctrlunit.common.emulator.interpreter.WakeupSignal;
 import io.github.xfacthd.rsctrlunit.common.emulator.core.i8051.I8051Opcode;
 import io.github.xfacthd.rsctrlunit.common.emulator.util.Code;
 import io.github.xfacthd.rsctrlunit.common.emulator.util.Constants;
+import io.github.xfacthd.rsctrlunit.common.emulator.util.TimerClockSource;
+import io.github.xfacthd.rsctrlunit.common.util.CodeStore;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.GlobalPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.level.Level;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
 @SuppressWarnings("CodeBlock2Expr")
 public class InterpreterTests
 {
@@ -3303,6 +3324,1108 @@ public class InterpreterTests
         }
     }
 
+    @Test
+    void testRunSlice()
+    {
+        Interpreter interpreter = createInterpreter();
+        byte[] romBytes = new byte[10];
+        Arrays.fill(romBytes, (byte) I8051Opcode.INC_ACC.toByte());
+        interpreter.loadCode(new Code("test", romBytes, Int2ObjectMaps.emptyMap(), "8051"));
+
+        int executed = interpreter.runSlice(5, 0);
+
+        Assertions.assertEquals(5, executed, "Executed instruction count does not match budget");
+        Assertions.assertEquals(5, interpreter.getContext().getProgramCounter(), "ProgramCounter does not match expected");
+        Assertions.assertEquals(5, interpreter.getSfr()[Constants.ADDRESS_ACCUMULATOR - Constants.SFR_START], "Accumulator does not match expected");
+
+        interpreter.pause();
+        Assertions.assertEquals(0, interpreter.runSlice(5, 0), "Paused interpreter executed instructions");
+    }
+
+    @Test
+    void testMachineCycleTimer()
+    {
+        Interpreter interpreter = createInterpreter(new byte[] { I8051Opcode.MUL_AB.toByte(), I8051Opcode.NOP.toByte() });
+        interpreter.getTimers().setClockSource(TimerClockSource.MACHINE_CYCLE);
+        RamAdapter ram = new RamAdapter(interpreter.getRam(), interpreter.getSfr(), interpreter.getExtRam());
+        ram.setSfr(Constants.ADDRESS_TMOD, 0b00000001);
+        ram.setSfr(Constants.ADDRESS_TCON, 0b00010000);
+        ram.setSfr(Constants.ADDRESS_TL0, 0xFE);
+        ram.setSfr(Constants.ADDRESS_TH0, 0xFF);
+
+        interpreter.run();
+
+        Assertions.assertEquals(4, interpreter.getMachineCycles(), "Machine cycles do not match expected");
+        Assertions.assertEquals(2, interpreter.getSfr()[Constants.ADDRESS_TL0 - Constants.SFR_START], "TL0 does not match expected");
+        Assertions.assertEquals(0, interpreter.getSfr()[Constants.ADDRESS_TH0 - Constants.SFR_START], "TH0 does not match expected");
+        Assertions.assertEquals(0b00110000, interpreter.getSfr()[Constants.ADDRESS_TCON - Constants.SFR_START] & 0b00110000, "Timer 0 overflow flag not set");
+    }
+
+    @Test
+    void testRunOwedCycles()
+    {
+        Interpreter interpreter = createInterpreter(new byte[0]);
+
+        long maxBacklog = 1_000_000_000L;
+        Assertions.assertEquals(0, interpreter.runOwedCycles(0, maxBacklog, Integer.MAX_VALUE, 0), "Clock start executed instructions");
+        // 12 MHz oscillator => 1000 machine cycles per millisecond
+        Assertions.assertEquals(1000, interpreter.runOwedCycles(1_000_000, maxBacklog, Integer.MAX_VALUE, 0), "Executed instructions do not match elapsed time");
+        Assertions.assertEquals(1000, interpreter.getMachineCycles(), "Machine cycles do not match elapsed time");
+    }
+
+    @Test
+    void testJitMatchesInterpreter()
+    {
+        byte[] rom = new byte[] {
+                0x78, 0x00,             // MOV R0, #0
+                0x79, 0x0A,             // MOV R1, #10
+                0x08,                   // INC R0
+                (byte) 0x88, 0x30,      // MOV 0x30, R0
+                (byte) 0xD9, (byte) 0xFB, // DJNZ R1, -5
+                (byte) 0x80, (byte) 0xFE  // SJMP -2
+        };
+
+        Interpreter reference = createInterpreter();
+        reference.setExecutionEngine(ExecutionEngine.SWITCH);
+        reference.loadCode(new Code("test", rom, Int2ObjectMaps.emptyMap(), "8051"));
+        Interpreter jit = createInterpreter();
+        Interpreter.InterpreterContext context = jit.getContext();
+        jit.setExecutionEngine(ExecutionEngine.JIT);
+        jit.setCompileThreshold(1);
+        jit.loadCode(new Code("test", rom, Int2ObjectMaps.emptyMap(), "8051"));
+
+        for (int budget : new int[] { 3, 7, 100 })
+        {
+            Assertions.assertEquals(reference.runSlice(budget, 0), jit.runSlice(budget, 0), "Executed instructions do not match");
+            Assertions.assertEquals(reference.getContext().getProgramCounter(), context.getProgramCounter(), "ProgramCounter does not match");
+            Assertions.assertArrayEquals(reference.getRam(), jit.getRam(), "RAM does not match");
+            Assertions.assertArrayEquals(reference.getSfr(), jit.getSfr(), "SFR does not match");
+            Assertions.assertEquals(reference.getMachineCycles(), jit.getMachineCycles(), "Machine cycles do not match");
+        }
+        Assertions.assertEquals(10, jit.getRam()[0x30], "Loop did not complete");
+        Assertions.assertEquals(0x09, context.getProgramCounter(), "Loop did not complete");
+        Assertions.assertNotNull(context.blockCache.get(context.instructionCache, context.rom, 0x04), "Loop body was not compiled");
+    }
+
+    @Test
+    void testCompiledBlocksShared()
+    {
+        byte[] rom = new byte[] {
+                0x08,                   // INC R0
+                (byte) 0x80, (byte) 0xFD  // SJMP -3
+        };
+        Interpreter.InterpreterContext first = createInterpreter(rom).getContext();
+        first.blockCache.setCompileThreshold(1);
+        Interpreter.InterpreterContext second = createInterpreter(rom.clone()).getContext();
+
+        CompiledBlock block = first.blockCache.get(first.instructionCache, first.rom, 0);
+        Assertions.assertNotNull(block, "Block not compiled");
+        // The second interpreter didn't reach the threshold itself, but picks up the block compiled by the first one
+        Assertions.assertSame(block, second.blockCache.get(second.instructionCache, second.rom, 0), "Compiled block not shared");
+    }
+
+    @Test
+    void testInstructionCacheRebuiltOnLoad()
+    {
+        Interpreter interpreter = createInterpreter();
+        interpreter.setExecutionEngine(ExecutionEngine.SWITCH);
+
+        // MOV A, #0x12
+        interpreter.loadCode(new Code("first", new byte[] { 0x74, 0x12 }, Int2ObjectMaps.emptyMap(), "8051"));
+        interpreter.run();
+        Assertions.assertEquals(0x12, interpreter.getSfr()[Constants.ADDRESS_ACCUMULATOR - Constants.SFR_START], "First program not executed");
+
+        // LJMP 0x1234
+        interpreter.loadCode(new Code("second", new byte[] { 0x02, 0x12, 0x34 }, Int2ObjectMaps.emptyMap(), "8051"));
+        interpreter.run();
+        Assertions.assertEquals(0x1234, interpreter.getContext().getProgramCounter(), "Stale instruction executed after reload");
+        Assertions.assertEquals(0, interpreter.getSfr()[Constants.ADDRESS_ACCUMULATOR - Constants.SFR_START], "Stale instruction executed after reload");
+    }
+
+    @Test
+    void testIdleLoopParksUntilInputChanges()
+    {
+        Interpreter interpreter = createInterpreter();
+        // JNB P1.0, -3
+        interpreter.loadCode(new Code("test", new byte[] { 0x30, (byte) 0x90, (byte) 0xFD }, Int2ObjectMaps.emptyMap(), "8051"));
+
+        long maxBacklog = 1_000_000_000L;
+        interpreter.runOwedCycles(0, maxBacklog, Integer.MAX_VALUE, 0);
+        int executed = interpreter.runOwedCycles(1_000_000, maxBacklog, Integer.MAX_VALUE, 0);
+        Assertions.assertTrue(interpreter.isParkedInIdleLoop(), "Interpreter not parked in idle loop");
+        Assertions.assertTrue(executed < 500, "Idle loop was not skipped");
+        Assertions.assertEquals(1000, interpreter.getMachineCycles(), "Machine cycles do not match elapsed time");
+        Assertions.assertEquals(0, interpreter.getContext().getProgramCounter(), "ProgramCounter does not match expected");
+
+        interpreter.getIoPorts().writeInputPort(1, (byte) 1);
+        interpreter.runOwedCycles(2_000_000, maxBacklog, Integer.MAX_VALUE, 0);
+        Assertions.assertFalse(interpreter.isParkedInIdleLoop(), "Interpreter not woken by input change");
+        Assertions.assertEquals(2000, interpreter.getMachineCycles(), "Machine cycles do not match elapsed time");
+        Assertions.assertTrue(interpreter.getContext().getProgramCounter() > 2, "Idle loop was not left");
+    }
+
+    @Test
+    void testParkedInterpreterSleepsUntilWoken()
+    {
+        Interpreter interpreter = createInterpreter();
+        // JNB P1.0, -3
+        interpreter.loadCode(new Code("test", new byte[] { 0x30, (byte) 0x90, (byte) 0xFD }, Int2ObjectMaps.emptyMap(), "8051"));
+        int[] wakeups = new int[1];
+        interpreter.setWakeupListener(() -> wakeups[0]++);
+
+        long interval = 1_000_000L;
+        Assertions.assertEquals(interval, interpreter.getSleepNanos(interval), "Running interpreter must not sleep");
+        interpreter.runOwedCycles(0, 1_000_000_000L, Integer.MAX_VALUE, 0);
+        interpreter.runOwedCycles(1_000_000, 1_000_000_000L, Integer.MAX_VALUE, 0);
+        Assertions.assertEquals(Interpreter.SLEEP_UNTIL_WOKEN, interpreter.getSleepNanos(interval), "Parked interpreter must sleep until woken");
+
+        interpreter.getIoPorts().writeInputPort(1, (byte) 0);
+        Assertions.assertEquals(0, wakeups[0], "Unchanged input must not wake the interpreter");
+        interpreter.getIoPorts().writeInputPort(1, (byte) 1);
+        Assertions.assertEquals(1, wakeups[0], "Input change did not wake the interpreter");
+        interpreter.getTimers().tickClock();
+        Assertions.assertEquals(2, wakeups[0], "Clock tick did not wake the interpreter");
+    }
+
+    @Test
+    void testWakeupEndsTimedSleep() throws Exception
+    {
+        // JNB P1.0, -3
+        Interpreter interpreter = createTimerInterpreter(new byte[] { 0x30, (byte) 0x90, (byte) 0xFD });
+        // Timer 0 overflows after 65536 machine cycles, which takes about 65 seconds at 12kHz
+        interpreter.setOscillatorFrequency(12_000);
+        interpreter.getSfr()[Constants.ADDRESS_TH0 - Constants.SFR_START] = 0;
+
+        long maxBacklog = 1_000_000_000L;
+        interpreter.runOwedCycles(0, maxBacklog, Integer.MAX_VALUE, 0);
+        interpreter.runOwedCycles(1_000_000_000, maxBacklog, Integer.MAX_VALUE, 0);
+        Assertions.assertTrue(interpreter.isParkedInIdleLoop(), "Interpreter not parked in idle loop");
+        long sleepNanos = interpreter.getSleepNanos(1_000_000L);
+        Assertions.assertNotEquals(Interpreter.SLEEP_UNTIL_WOKEN, sleepNanos, "Parked interpreter with running timer must not sleep indefinitely");
+        Assertions.assertTrue(sleepNanos > TimeUnit.SECONDS.toNanos(30), "Parked interpreter must sleep until the timer overflows");
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService workers = Executors.newSingleThreadExecutor();
+        try
+        {
+            Semaphore runs = new Semaphore(0);
+            WakeableSchedule schedule = new WakeableSchedule(runs::release, scheduler, workers);
+            interpreter.setWakeupListener(schedule::wakeup);
+            schedule.sleep(sleepNanos);
+
+            interpreter.getIoPorts().writeInputPort(1, (byte) 1);
+            Assertions.assertTrue(runs.tryAcquire(5, TimeUnit.SECONDS), "Input change did not end the timed sleep");
+
+            // A wakeup after the sleep already ended doesn't run the task again
+            interpreter.getIoPorts().writeInputPort(1, (byte) 0);
+            Assertions.assertFalse(runs.tryAcquire(100, TimeUnit.MILLISECONDS), "Task ran without sleeping");
+        }
+        finally
+        {
+            scheduler.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testIdleLoopWakesOnTimerOverflow()
+    {
+        // JNB TF0, -3
+        byte[] rom = new byte[] { 0x30, (byte) 0x8D, (byte) 0xFD };
+        Interpreter reference = createTimerInterpreter(rom);
+        reference.setIdleLoopParking(false);
+        Interpreter parked = createTimerInterpreter(rom);
+
+        long maxBacklog = 1_000_000_000L;
+        for (long now : new long[] { 0, 1_000_000, 10_000_000 })
+        {
+            reference.runOwedCycles(now, maxBacklog, Integer.MAX_VALUE, 0);
+            parked.runOwedCycles(now, maxBacklog, Integer.MAX_VALUE, 0);
+            if (now == 1_000_000)
+            {
+                Assertions.assertTrue(parked.isParkedInIdleLoop(), "Interpreter not parked in idle loop");
+            }
+            Assertions.assertEquals(reference.getContext().getProgramCounter(), parked.getContext().getProgramCounter(), "ProgramCounter does not match");
+            Assertions.assertArrayEquals(reference.getRam(), parked.getRam(), "RAM does not match");
+            Assertions.assertArrayEquals(reference.getSfr(), parked.getSfr(), "SFR does not match");
+            Assertions.assertEquals(reference.getMachineCycles(), parked.getMachineCycles(), "Machine cycles do not match");
+        }
+        Assertions.assertFalse(parked.isParkedInIdleLoop(), "Interpreter not woken by timer overflow");
+        Assertions.assertTrue(parked.getContext().getProgramCounter() > 2, "Idle loop was not left");
+    }
+
+    @Test
+    void testIdleModeEndsOnTimerInterrupt()
+    {
+        byte[] rom = new byte[0x0C];
+        // ORL PCON, #1
+        rom[0x00] = 0x43;
+        rom[0x01] = (byte) Constants.ADDRESS_PCON;
+        rom[0x02] = Constants.MASK_PCON_IDLE;
+        // INC A
+        rom[0x03] = 0x04;
+        // NOP
+        rom[0x04] = 0x00;
+        // SJMP -2
+        rom[0x05] = (byte) 0x80;
+        rom[0x06] = (byte) 0xFE;
+        // Timer 0 ISR: RETI
+        rom[0x0B] = 0x32;
+        Interpreter interpreter = createTimerInterpreter(rom);
+        interpreter.setIdleLoopParking(false);
+        RamAdapter ram = new RamAdapter(interpreter.getRam(), interpreter.getSfr(), interpreter.getExtRam());
+        ram.setSfr(Constants.ADDRESS_TH0, 0xFF);
+        ram.setSfr(Constants.ADDRESS_IE, 0b10000010);
+
+        long maxBacklog = 1_000_000_000L;
+        interpreter.runOwedCycles(0, maxBacklog, Integer.MAX_VALUE, 0);
+        interpreter.runOwedCycles(100_000, maxBacklog, Integer.MAX_VALUE, 0);
+        Assertions.assertEquals(3, interpreter.getContext().getProgramCounter(), "Instructions executed in idle mode");
+        Assertions.assertEquals(100, interpreter.getMachineCycles(), "Machine cycles do not match elapsed time");
+        Assertions.assertEquals(100, interpreter.getSfr()[Constants.ADDRESS_TL0 - Constants.SFR_START], "Timer stopped in idle mode");
+        Assertions.assertNotEquals(Interpreter.SLEEP_UNTIL_WOKEN, interpreter.getSleepNanos(1_000_000L), "Idle interpreter with running timer must not sleep indefinitely");
+
+        interpreter.runOwedCycles(1_000_000, maxBacklog, Integer.MAX_VALUE, 0);
+        Assertions.assertEquals(1000, interpreter.getMachineCycles(), "Machine cycles do not match elapsed time");
+        Assertions.assertEquals(1, interpreter.getSfr()[Constants.ADDRESS_ACCUMULATOR - Constants.SFR_START], "Idle mode not left after interrupt");
+        Assertions.assertEquals(0, interpreter.getSfr()[Constants.ADDRESS_PCON - Constants.SFR_START] & Constants.MASK_PCON_IDLE, "Idle bit not cleared by interrupt");
+    }
+
+    @Test
+    void testPowerDownEndsOnExternalInterrupt()
+    {
+        byte[] rom = new byte[0x36];
+        // SJMP 0x30
+        rom[0x00] = (byte) 0x80;
+        rom[0x01] = 0x2E;
+        // External 0 ISR: RETI
+        rom[0x03] = 0x32;
+        // ORL PCON, #2
+        rom[0x30] = 0x43;
+        rom[0x31] = (byte) Constants.ADDRESS_PCON;
+        rom[0x32] = Constants.MASK_PCON_POWER_DOWN;
+        // INC A
+        rom[0x33] = 0x04;
+        // SJMP -2
+        rom[0x34] = (byte) 0x80;
+        rom[0x35] = (byte) 0xFE;
+        Interpreter interpreter = createTimerInterpreter(rom);
+        RamAdapter ram = new RamAdapter(interpreter.getRam(), interpreter.getSfr(), interpreter.getExtRam());
+        ram.setSfr(Constants.ADDRESS_IE, 0b10000001);
+        // Edge triggered external interrupt 0
+        ram.setSfr(Constants.ADDRESS_TCON, 0b00010001);
+        interpreter.getIoPorts().writeInputPort(3, (byte) 0b00000100);
+
+        long maxBacklog = 1_000_000_000L;
+        interpreter.runOwedCycles(0, maxBacklog, Integer.MAX_VALUE, 0);
+        interpreter.runOwedCycles(1_000_000, maxBacklog, Integer.MAX_VALUE, 0);
+        Assertions.assertEquals(0x33, interpreter.getContext().getProgramCounter(), "Instructions executed in power-down mode");
+        Assertions.assertEquals(4, interpreter.getMachineCycles(), "Oscillator not stopped in power-down mode");
+        Assertions.assertEquals(4, interpreter.getSfr()[Constants.ADDRESS_TL0 - Constants.SFR_START], "Timer running in power-down mode");
+        Assertions.assertEquals(Interpreter.SLEEP_UNTIL_WOKEN, interpreter.getSleepNanos(1_000_000L), "Powered down interpreter must sleep until woken");
+
+        interpreter.getIoPorts().writeInputPort(3, (byte) 0);
+        interpreter.runOwedCycles(2_000_000, maxBacklog, Integer.MAX_VALUE, 0);
+        Assertions.assertEquals(1, interpreter.getSfr()[Constants.ADDRESS_ACCUMULATOR - Constants.SFR_START], "Power-down mode not left after external interrupt");
+        Assertions.assertEquals(0, interpreter.getSfr()[Constants.ADDRESS_PCON - Constants.SFR_START] & Constants.MASK_PCON_POWER_DOWN, "Power-down bit not cleared by interrupt");
+    }
+
+    @Test
+    void testPowerDownIgnoresSerialPort()
+    {
+        byte[] txRom = new byte[0x24];
+        byte[] program = new byte[] {
+                // MOV TH1, #0xFF
+                0x75, (byte) Constants.ADDRESS_TH1, (byte) 0xFF,
+                // MOV SCON, #0x40
+                0x75, (byte) Constants.ADDRESS_SCON, 0x40,
+                // MOV R7, #0
+                0x7F, 0x00,
+                // MOV SBUF, A
+                (byte) 0xF5, (byte) Constants.ADDRESS_SBUF,
+                // JNB TI, $
+                0x30, (byte) Constants.BIT_ADDRESS_SCON_TI, (byte) 0xFD,
+                // CLR TI
+                (byte) 0xC2, (byte) Constants.BIT_ADDRESS_SCON_TI,
+                // DJNZ R7, -9
+                (byte) 0xDF, (byte) 0xF7,
+                // MOV SBUF, A
+                (byte) 0xF5, (byte) Constants.ADDRESS_SBUF,
+                // MOV R6, #0
+                0x7E, 0x00,
+                // DJNZ R6, $
+                (byte) 0xDE, (byte) 0xFE,
+                // MOV IE, #0x90
+                0x75, (byte) Constants.ADDRESS_IE, (byte) 0b10010000,
+                // ORL PCON, #2
+                0x43, (byte) Constants.ADDRESS_PCON, Constants.MASK_PCON_POWER_DOWN,
+                // INC A
+                0x04,
+                // SJMP $
+                (byte) 0x80, (byte) 0xFE
+        };
+        System.arraycopy(program, 0, txRom, 0, program.length);
+        // Serial ISR: RETI
+        txRom[0x23] = 0x32;
+        byte[] rxRom = new byte[] {
+                // MOV SCON, #0x50
+                0x75, (byte) Constants.ADDRESS_SCON, 0x50,
+                // SJMP $
+                (byte) 0x80, (byte) 0xFE
+        };
+        Interpreter sender = createInterpreter(txRom);
+        Interpreter receiver = createInterpreter(rxRom);
+        SerialPort.connect(sender.getSerialPort(), receiver.getSerialPort());
+
+        // The link fills up and stalls the last transmission before the sender powers down
+        long maxBacklog = 1_000_000_000L;
+        sender.runOwedCycles(0, maxBacklog, Integer.MAX_VALUE, 0);
+        sender.runOwedCycles(1_000_000_000L, maxBacklog, Integer.MAX_VALUE, 0);
+        int sconIdx = Constants.ADDRESS_SCON - Constants.SFR_START;
+        int pconIdx = Constants.ADDRESS_PCON - Constants.SFR_START;
+        Assertions.assertEquals(0x1D, sender.getContext().getProgramCounter(), "Power-down mode not entered");
+        Assertions.assertEquals(0, sender.getSfr()[sconIdx] & 0b00000010, "Stalled transmission completed");
+
+        // Freeing up the link must not complete the stalled transmission while the oscillator is stopped
+        receiver.run();
+        receiver.run();
+        sender.runOwedCycles(2_000_000_000L, maxBacklog, Integer.MAX_VALUE, 0);
+        sender.run();
+        Assertions.assertEquals(0x1D, sender.getContext().getProgramCounter(), "Power-down mode left through serial interrupt");
+        Assertions.assertEquals(0, sender.getSfr()[sconIdx] & 0b00000010, "Transmission completed in power-down mode");
+        Assertions.assertNotEquals(0, sender.getSfr()[pconIdx] & Constants.MASK_PCON_POWER_DOWN, "Power-down bit cleared");
+    }
+
+    @Test
+    void testDelayLoopSkipMatchesInterpreter()
+    {
+        byte[][] roms = new byte[][] {
+                {
+                        0x7F, (byte) 200,               // MOV R7, #200
+                        (byte) 0xDF, (byte) 0xFE,       // DJNZ R7, $
+                        (byte) 0x80, (byte) 0xFE        // SJMP $
+                },
+                {
+                        0x7E, 0x05,                     // MOV R6, #5
+                        0x7F, 0x03,                     // MOV R7, #3
+                        (byte) 0xDE, (byte) 0xFE,       // inner: DJNZ R6, inner
+                        (byte) 0xDF, (byte) 0xFC,       // DJNZ R7, inner
+                        (byte) 0x80, (byte) 0xFE        // SJMP $
+                },
+                {
+                        0x75, 0x30, 0x03,               // MOV 0x30, #3
+                        0x7E, 0x0A,                     // outer: MOV R6, #10
+                        (byte) 0xDE, (byte) 0xFE,       // DJNZ R6, $
+                        (byte) 0xD5, 0x30, (byte) 0xF9, // DJNZ 0x30, outer
+                        (byte) 0x80, (byte) 0xFE        // SJMP $
+                }
+        };
+
+        for (byte[] rom : roms)
+        {
+            Interpreter reference = createInterpreter();
+            reference.setDelayLoopSkipping(false);
+            reference.loadCode(new Code("test", rom, Int2ObjectMaps.emptyMap(), "8051"));
+            Interpreter skipping = createInterpreter(rom);
+
+            for (int budget : new int[] { 1, 7, 100, 1000, 100_000 })
+            {
+                Assertions.assertEquals(reference.runSlice(budget, 0), skipping.runSlice(budget, 0), "Executed instructions do not match");
+                assertSameState(reference, skipping);
+            }
+        }
+    }
+
+    @Test
+    void testDelayLoopSkipServicesTimerInterrupt()
+    {
+        byte[] rom = new byte[0x3C];
+        // SJMP 0x30
+        rom[0x00] = (byte) 0x80;
+        rom[0x01] = 0x2E;
+        // Timer 0 ISR: INC 0x40, RETI
+        rom[0x0B] = 0x05;
+        rom[0x0C] = 0x40;
+        rom[0x0D] = 0x32;
+        // MOV 0x30, #3
+        rom[0x30] = 0x75;
+        rom[0x31] = 0x30;
+        rom[0x32] = 0x03;
+        // outer: MOV R6, #0
+        rom[0x33] = 0x7E;
+        rom[0x34] = 0x00;
+        // DJNZ R6, $
+        rom[0x35] = (byte) 0xDE;
+        rom[0x36] = (byte) 0xFE;
+        // DJNZ 0x30, outer
+        rom[0x37] = (byte) 0xD5;
+        rom[0x38] = 0x30;
+        rom[0x39] = (byte) 0xF9;
+        // SJMP $
+        rom[0x3A] = (byte) 0x80;
+        rom[0x3B] = (byte) 0xFE;
+
+        Interpreter reference = createTimerInterpreter(rom);
+        reference.setDelayLoopSkipping(false);
+        Interpreter skipping = createTimerInterpreter(rom);
+        for (Interpreter interpreter : new Interpreter[] { reference, skipping })
+        {
+            RamAdapter ram = new RamAdapter(interpreter.getRam(), interpreter.getSfr(), interpreter.getExtRam());
+            // 8 bit auto-reload, overflow every 256 cycles
+            ram.setSfr(Constants.ADDRESS_TMOD, 0b00000010);
+            ram.setSfr(Constants.ADDRESS_TH0, 0x00);
+            ram.setSfr(Constants.ADDRESS_IE, 0b10000010);
+        }
+
+        long maxBacklog = 1_000_000_000L;
+        for (long now = 0; now <= 3_000_000; now += 100_000)
+        {
+            reference.runOwedCycles(now, maxBacklog, Integer.MAX_VALUE, 0);
+            skipping.runOwedCycles(now, maxBacklog, Integer.MAX_VALUE, 0);
+            assertSameState(reference, skipping);
+        }
+        Assertions.assertEquals(0x3A, skipping.getContext().getProgramCounter(), "Delay loop did not complete");
+        Assertions.assertTrue(skipping.getRam()[0x40] > 0, "Timer interrupt not serviced");
+    }
+
+    @Test
+    void testDeferredFlagsVisibleToPswReads()
+    {
+        byte[] rom = new byte[] {
+                0x74, (byte) 0xF0,                      // MOV A, #0xF0
+                0x24, 0x20,                             // ADD A, #0x20
+                (byte) 0x85, 0x30, (byte) 0xD0,         // MOV 0x30, PSW
+                0x75, (byte) 0xD0, 0x00,                // MOV PSW, #0
+                (byte) 0x94, 0x01,                      // SUBB A, #1
+                0x40, 0x02,                             // JC skip
+                0x05, 0x31,                             // INC 0x31
+                (byte) 0x80, (byte) 0xFE                // skip: SJMP $
+        };
+
+        for (ExecutionEngine engine : ExecutionEngine.values())
+        {
+            Interpreter interpreter = createInterpreter();
+            interpreter.setExecutionEngine(engine);
+            interpreter.loadCode(new Code("test", rom, Int2ObjectMaps.emptyMap(), "8051"));
+            interpreter.runSlice(7, 0);
+
+            Assertions.assertEquals(0x81, interpreter.getRam()[0x30] & 0xFF, "Carry and parity not stored (" + engine + ")");
+            Assertions.assertEquals(1, interpreter.getRam()[0x31], "Carry jump taken (" + engine + ")");
+            Assertions.assertEquals(0x40, interpreter.getSfr()[Constants.ADDRESS_STATUS_WORD - Constants.SFR_START] & 0xFF, "PSW does not match (" + engine + ")");
+        }
+    }
+
+    @Test
+    void testCommandsAppliedBetweenSlices()
+    {
+        byte[] rom = new byte[] {
+                0x05, 0x30,                             // loop: INC 0x30
+                (byte) 0x80, (byte) 0xFC                // SJMP loop
+        };
+
+        Interpreter interpreter = createInterpreter();
+        interpreter.setIdleLoopParking(false);
+        interpreter.post(new Code("test", rom, Int2ObjectMaps.emptyMap(), "8051"), Interpreter::loadCode);
+        Assertions.assertEquals(Code.EMPTY, interpreter.getCode(), "Command applied before slice");
+
+        interpreter.runSlice(10, 0);
+        Assertions.assertEquals(5, interpreter.getRam()[0x30], "Code not loaded before slice");
+
+        InterpreterSnapshot stale = interpreter.requestSnapshot();
+        Assertions.assertEquals(0, stale.ram()[0x30], "Snapshot published without request");
+        interpreter.processCommands();
+        InterpreterSnapshot snapshot = interpreter.requestSnapshot();
+        Assertions.assertEquals(5, snapshot.ram()[0x30], "Snapshot not published");
+
+        interpreter.runSlice(10, 0);
+        Assertions.assertEquals(5, snapshot.ram()[0x30], "Published snapshot modified");
+
+        interpreter.post(null, (interp, $) -> interp.getContext().reset(false));
+        interpreter.processCommands();
+        Assertions.assertEquals(0, interpreter.getRam()[0x30], "Reset not applied");
+    }
+
+    @Test
+    void testTickCyclesIndependentOfWallTime()
+    {
+        byte[] rom = new byte[] {
+                0x05, 0x30,                             // loop: INC 0x30
+                (byte) 0x80, (byte) 0xFC                // SJMP loop
+        };
+
+        Interpreter reference = createInterpreter(rom);
+        Interpreter actual = createInterpreter(rom);
+
+        long cyclesPerTick = Constants.DEFAULT_OSCILLATOR_FREQUENCY / Constants.OSCILLATOR_PERIODS_PER_CYCLE / 20;
+        for (int tick = 1; tick <= 3; tick++)
+        {
+            reference.runTickCycles();
+            actual.runTickCycles();
+            assertSameState(reference, actual);
+            // INC direct takes one cycle and SJMP two, so a tick may end one cycle late
+            long cycles = actual.getMachineCycles();
+            Assertions.assertTrue(cycles >= tick * cyclesPerTick && cycles <= tick * cyclesPerTick + 1, "Tick executed " + cycles + " cycles");
+        }
+    }
+
+    @Test
+    void testSkippedTimeCatchesUpTimers()
+    {
+        // SJMP $
+        Interpreter interpreter = createTimerInterpreter(new byte[] { (byte) 0x80, (byte) 0xFE });
+        byte[] sfr = interpreter.getSfr();
+
+        // 1ms at 12MHz are 1000 machine cycles
+        interpreter.skipTime(1_000_000L, true);
+        Assertions.assertEquals(0xF3, sfr[Constants.ADDRESS_TH0 - Constants.SFR_START] & 0xFF, "TH0 does not match");
+        Assertions.assertEquals(0xE8, sfr[Constants.ADDRESS_TL0 - Constants.SFR_START] & 0xFF, "TL0 does not match");
+
+        interpreter.skipTime(5_000_000L, false);
+        Assertions.assertEquals(0xF3, sfr[Constants.ADDRESS_TH0 - Constants.SFR_START] & 0xFF, "Timer advanced without catch-up");
+
+        interpreter.skipTime(5_000_000L, true);
+        Assertions.assertEquals(0x07, sfr[Constants.ADDRESS_TH0 - Constants.SFR_START] & 0xFF, "TH0 does not match");
+        Assertions.assertEquals(0x70, sfr[Constants.ADDRESS_TL0 - Constants.SFR_START] & 0xFF, "TL0 does not match");
+        Assertions.assertNotEquals(0, sfr[Constants.ADDRESS_TCON - Constants.SFR_START] & 0b00100000, "Overflow flag not set");
+    }
+
+    @Test
+    void testTimerReadBetweenOverflows()
+    {
+        // MUL AB, NOP, MOV A, TL0
+        Interpreter interpreter = createTimerInterpreter(new byte[] {
+                I8051Opcode.MUL_AB.toByte(), I8051Opcode.NOP.toByte(), (byte) 0xE5, (byte) Constants.ADDRESS_TL0
+        });
+        for (int i = 0; i < 3; i++)
+        {
+            interpreter.run();
+        }
+
+        Assertions.assertEquals(5, interpreter.getSfr()[Constants.ADDRESS_ACCUMULATOR - Constants.SFR_START], "TL0 read does not match elapsed cycles");
+        Assertions.assertEquals(6, interpreter.getSfr()[Constants.ADDRESS_TL0 - Constants.SFR_START], "TL0 does not match expected");
+        Assertions.assertEquals((byte) 0xF0, interpreter.getSfr()[Constants.ADDRESS_TH0 - Constants.SFR_START], "TH0 does not match expected");
+    }
+
+    @Test
+    void testSerialInterrupt()
+    {
+        byte[] rom = new byte[0x24];
+        // MOV IE, #0x90
+        rom[0x00] = 0x75;
+        rom[0x01] = (byte) Constants.ADDRESS_IE;
+        rom[0x02] = (byte) 0b10010000;
+        // SETB TI
+        rom[0x03] = (byte) 0xD2;
+        rom[0x04] = (byte) Constants.BIT_ADDRESS_SCON_TI;
+        // NOP
+        rom[0x05] = 0x00;
+        // Serial ISR: NOP
+        rom[0x23] = 0x00;
+        Interpreter interpreter = createTimerInterpreter(rom);
+
+        interpreter.run();
+        interpreter.run();
+        Assertions.assertEquals(5, interpreter.getContext().getProgramCounter(), "Interrupt entered too early");
+        interpreter.run();
+        Assertions.assertEquals(0x24, interpreter.getContext().getProgramCounter(), "Serial ISR not entered");
+        Assertions.assertEquals(0b00000010, interpreter.getSfr()[Constants.ADDRESS_SCON - Constants.SFR_START], "Serial port flags cleared by hardware");
+    }
+
+    @Test
+    void testSerialLink()
+    {
+        byte[] txRom = new byte[] {
+                // MOV TH1, #0xFF
+                0x75, (byte) Constants.ADDRESS_TH1, (byte) 0xFF,
+                // MOV SCON, #0x40
+                0x75, (byte) Constants.ADDRESS_SCON, 0x40,
+                // MOV SBUF, #0x5A
+                0x75, (byte) Constants.ADDRESS_SBUF, 0x5A,
+                // SJMP $
+                (byte) 0x80, (byte) 0xFE
+        };
+        byte[] rxRom = new byte[] {
+                // MOV TH1, #0xFF
+                0x75, (byte) Constants.ADDRESS_TH1, (byte) 0xFF,
+                // MOV SCON, #0x50
+                0x75, (byte) Constants.ADDRESS_SCON, 0x50,
+                // SJMP $
+                (byte) 0x80, (byte) 0xFE
+        };
+        Interpreter sender = createTimerInterpreter(txRom);
+        Interpreter receiver = createTimerInterpreter(rxRom);
+        SerialPort.connect(sender.getSerialPort(), receiver.getSerialPort());
+
+        int sconIdx = Constants.ADDRESS_SCON - Constants.SFR_START;
+        for (int i = 0; i < 500; i++)
+        {
+            sender.run();
+            receiver.run();
+        }
+        Assertions.assertEquals(0x42, sender.getSfr()[sconIdx], "Transmission not completed");
+        Assertions.assertEquals(0x55, receiver.getSfr()[sconIdx], "Reception not completed");
+        Assertions.assertEquals(0x5A, receiver.getSfr()[Constants.ADDRESS_SBUF - Constants.SFR_START], "Wrong frame received");
+    }
+
+    @Test
+    void testSerialLinkWakeups() throws Exception
+    {
+        // Both sides only retry after being signalled, a lost wakeup stalls the transfer
+        Semaphore producerWakeups = new Semaphore(0);
+        Semaphore consumerWakeups = new Semaphore(0);
+        WakeupSignal producerSignal = new WakeupSignal();
+        producerSignal.setListener(producerWakeups::release);
+        WakeupSignal consumerSignal = new WakeupSignal();
+        consumerSignal.setListener(consumerWakeups::release);
+        SerialLink link = new SerialLink(producerSignal, consumerSignal);
+
+        int frames = 500_000;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try
+        {
+            Future<Boolean> producer = executor.submit(() ->
+            {
+                for (int i = 0; i < frames; i++)
+                {
+                    // Signals from before the check are consumed like the scheduler does at the start of a run
+                    producerWakeups.drainPermits();
+                    while (!link.offer(i & 0x1FF))
+                    {
+                        if (!producerWakeups.tryAcquire(1, TimeUnit.SECONDS))
+                        {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            });
+            Future<Integer> consumer = executor.submit(() ->
+            {
+                for (int i = 0; i < frames; i++)
+                {
+                    int frame;
+                    consumerWakeups.drainPermits();
+                    while ((frame = link.poll()) == SerialLink.EMPTY)
+                    {
+                        if (!consumerWakeups.tryAcquire(1, TimeUnit.SECONDS))
+                        {
+                            return i;
+                        }
+                    }
+                    Assertions.assertEquals(i & 0x1FF, frame, "Frames received out of order");
+                }
+                return frames;
+            });
+            Assertions.assertTrue(producer.get(60, TimeUnit.SECONDS), "Sender not woken up by the receiver");
+            int received = consumer.get(60, TimeUnit.SECONDS);
+            Assertions.assertEquals(frames, received, "Receiver not woken up by the sender");
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSharedRomImage()
+    {
+        byte[] rom = new byte[] { 0x04, (byte) 0x80, (byte) 0xFD };
+        Interpreter first = createTimerInterpreter(rom);
+        Interpreter second = createTimerInterpreter(rom.clone());
+        Assertions.assertSame(first.getContext().rom, second.getContext().rom, "ROM image not shared");
+
+        second.loadCode(new Code("test", new byte[] { 0x14 }, Int2ObjectMaps.emptyMap(), "8051"));
+        Assertions.assertNotSame(first.getContext().rom, second.getContext().rom, "ROM image still shared after loading other code");
+        Assertions.assertEquals(0x04, first.getContext().rom[0], "Shared ROM image modified");
+
+        first.run();
+        second.run();
+        Assertions.assertEquals(1, first.getSfr()[Constants.ADDRESS_ACCUMULATOR - Constants.SFR_START], "Wrong program executed");
+        Assertions.assertEquals(-1, second.getSfr()[Constants.ADDRESS_ACCUMULATOR - Constants.SFR_START], "Wrong program executed");
+    }
+
+    @Test
+    void testPagedExternalRam()
+    {
+        byte[] rom = new byte[] {
+                // MOV R0, #0x90
+                0x78, (byte) 0x90,
+                // MOV A, #0x5A
+                0x74, 0x5A,
+                // MOVX @R0, A
+                (byte) 0xF2,
+                // CLR A
+                (byte) 0xE4,
+                // MOVX A, @R0
+                (byte) 0xE2
+        };
+        Interpreter interpreter = createTimerInterpreter(rom);
+        interpreter.setExternalRamSize(ExternalRam.MAX_SIZE);
+        for (int i = 0; i < 5; i++)
+        {
+            interpreter.run();
+        }
+        ExternalRam extRam = interpreter.getContext().extRam;
+        Assertions.assertEquals(0x5A, interpreter.getSfr()[Constants.ADDRESS_ACCUMULATOR - Constants.SFR_START], "Value not read back");
+        Assertions.assertEquals(0x5A, extRam.read(0x0090), "Value not written to R0");
+        Assertions.assertEquals(1, extRam.getAllocatedPageCount(), "Unwritten pages allocated");
+
+        // Pages above the default size are kept by the saved state
+        extRam.write(0xF012, (byte) 0x34);
+        Interpreter loaded = createInterpreter();
+        loaded.setExternalRamSize(ExternalRam.MAX_SIZE);
+        loaded.load(interpreter.save());
+        Assertions.assertArrayEquals(interpreter.getExtRam(), loaded.getExtRam(), "External RAM not restored");
+        Assertions.assertEquals(2, loaded.getContext().extRam.getAllocatedPageCount(), "Unwritten pages allocated on load");
+    }
+
+    @Test
+    void testStateVersionWhileParked()
+    {
+        byte[] rom = new byte[] {
+                // INC A
+                0x04,
+                // SJMP $
+                (byte) 0x80, (byte) 0xFE
+        };
+        Interpreter interpreter = createInterpreter(rom);
+        long now = 0;
+        for (int i = 0; i < 4; i++)
+        {
+            now += 1_000_000;
+            interpreter.runOwedCycles(now, 50_000_000L, 10_000, 0);
+        }
+        Assertions.assertTrue(interpreter.isParkedInIdleLoop(), "Interpreter not parked");
+
+        // Without any time passing, nothing changes
+        int version = interpreter.getStateVersion();
+        interpreter.runOwedCycles(now, 50_000_000L, 10_000, 0);
+        Assertions.assertEquals(version, interpreter.getStateVersion(), "State version changed without progress");
+
+        // Time passing while parked advances the persisted machine cycles
+        long cycles = interpreter.getMachineCycles();
+        now += 1_000_000;
+        interpreter.runOwedCycles(now, 50_000_000L, 10_000, 0);
+        Assertions.assertTrue(interpreter.isParkedInIdleLoop(), "Interpreter not parked");
+        Assertions.assertNotEquals(cycles, interpreter.getMachineCycles(), "Machine cycles not advanced while parked");
+        Assertions.assertNotEquals(version, interpreter.getStateVersion(), "State version not changed by parked progress");
+
+        version = interpreter.getStateVersion();
+        interpreter.post(null, (interp, $) -> interp.getContext().reset(false));
+        interpreter.runOwedCycles(now + 1_000_000, 50_000_000L, 10_000, 0);
+        Assertions.assertNotEquals(version, interpreter.getStateVersion(), "State version not changed by reset");
+    }
+
+    @Test
+    void testRestoreCodeKeepsState()
+    {
+        byte[] rom = new byte[] {
+                // INC A
+                0x04,
+                // SJMP $-1
+                (byte) 0x80, (byte) 0xFD
+        };
+        Code code = new Code("test", rom, Int2ObjectMaps.emptyMap(), "8051");
+        Interpreter interpreter = createInterpreter();
+        interpreter.loadCode(code);
+        for (int i = 0; i < 5; i++)
+        {
+            interpreter.run();
+        }
+
+        CompoundTag tag = interpreter.save(false);
+        Assertions.assertFalse(tag.contains("code"), "Code saved inline");
+
+        Interpreter loaded = createInterpreter();
+        loaded.load(tag);
+        loaded.restoreCode(code);
+        Assertions.assertEquals(code, loaded.getCode());
+        assertSameState(interpreter, loaded);
+
+        interpreter.run();
+        loaded.run();
+        assertSameState(interpreter, loaded);
+    }
+
+    @Test
+    void testLegacyStateMigration()
+    {
+        byte[] ram = new byte[Constants.RAM_SIZE];
+        ram[0x30] = 0x12;
+        byte[] sfr = new byte[Constants.SFR_SIZE];
+        sfr[Constants.ADDRESS_ACCUMULATOR - Constants.SFR_START] = 0x34;
+        byte[] extRam = new byte[Constants.EXT_RAM_SIZE];
+        extRam[0x1234] = 0x56;
+
+        CompoundTag legacy = new CompoundTag();
+        legacy.putByteArray("ram", ram);
+        legacy.putByteArray("sfr", sfr);
+        legacy.putByteArray("external_ram", extRam);
+        CompoundTag io = new CompoundTag();
+        io.putByteArray("out", new byte[] { 1, 2, 3, 4 });
+        io.putByteArray("in", new byte[4]);
+        legacy.put("io", io);
+        legacy.putInt("program_counter", 0x0100);
+        legacy.putLong("machine_cycles", 123456789L);
+        legacy.putBoolean("paused", true);
+
+        Interpreter interpreter = createInterpreter();
+        interpreter.load(legacy);
+        Assertions.assertEquals(0x0100, interpreter.getContext().getProgramCounter());
+        Assertions.assertEquals(123456789L, interpreter.getMachineCycles());
+        Assertions.assertTrue(interpreter.isPaused());
+        Assertions.assertArrayEquals(extRam, interpreter.getExtRam());
+
+        CompoundTag tag = interpreter.save();
+        Assertions.assertTrue(tag.contains("state"), "State not saved as binary blob");
+        Assertions.assertFalse(tag.contains("ram"), "Legacy state saved");
+
+        Interpreter loaded = createInterpreter();
+        loaded.load(tag);
+        assertSameState(interpreter, loaded);
+        Assertions.assertTrue(loaded.isPaused());
+        Assertions.assertArrayEquals(extRam, loaded.getExtRam());
+    }
+
+    @Test
+    void testRunnableState()
+    {
+        // JNB P1.0, -3
+        Interpreter interpreter = createInterpreter(new byte[] { 0x30, (byte) 0x90, (byte) 0xFD });
+        Assertions.assertTrue(interpreter.isRunnable(), "Fresh interpreter not runnable");
+
+        interpreter.runOwedCycles(0, 1_000_000_000L, Integer.MAX_VALUE, 0);
+        interpreter.runOwedCycles(1_000_000, 1_000_000_000L, Integer.MAX_VALUE, 0);
+        Assertions.assertFalse(interpreter.isRunnable(), "Interpreter parked in idle loop is runnable");
+
+        interpreter.getIoPorts().writeInputPort(1, (byte) 1);
+        interpreter.runOwedCycles(2_000_000, 1_000_000_000L, Integer.MAX_VALUE, 0);
+        Assertions.assertTrue(interpreter.isRunnable(), "Woken interpreter not runnable");
+
+        interpreter.pause();
+        Assertions.assertFalse(interpreter.isRunnable(), "Paused interpreter is runnable");
+        interpreter.resume();
+
+        RamAdapter ram = new RamAdapter(interpreter.getRam(), interpreter.getSfr(), interpreter.getExtRam());
+        ram.setSfr(Constants.ADDRESS_PCON, Constants.MASK_PCON_IDLE);
+        Assertions.assertFalse(interpreter.isRunnable(), "Halted interpreter is runnable");
+    }
+
+    @Test
+    void testGovernorThrottlesOnlyInterpreterLag()
+    {
+        // Within the target
+        Assertions.assertFalse(ExecutionGovernor.shouldThrottle(40D, 45, 40D));
+        // Over the target, but the interpreters barely take any time
+        Assertions.assertFalse(ExecutionGovernor.shouldThrottle(60D, 45, 2D));
+        // Over the target and the interpreters account for at least half of the overshoot
+        Assertions.assertTrue(ExecutionGovernor.shouldThrottle(60D, 45, 7.5D));
+        Assertions.assertTrue(ExecutionGovernor.shouldThrottle(60D, 45, 30D));
+    }
+
+    @Test
+    void testGovernorSharesBudgetBetweenRunnableInterpreters()
+    {
+        Assertions.assertEquals(Double.POSITIVE_INFINITY, ExecutionGovernor.computeInstructionsPerHertz(Double.POSITIVE_INFINITY, 12_000_000L));
+        Assertions.assertEquals(Double.POSITIVE_INFINITY, ExecutionGovernor.computeInstructionsPerHertz(1_000_000D, 0L));
+        Assertions.assertEquals(.05D, ExecutionGovernor.computeInstructionsPerHertz(1_200_000D, 24_000_000L), 1E-9);
+    }
+
+    @Test
+    void testAllowanceCarriesFraction()
+    {
+        ExecutionGovernor.Allowance allowance = new ExecutionGovernor.Allowance();
+        long sliceNanos = 30_000_000L;
+        long now = 1L;
+        allowance.acquire(25D, now, Integer.MAX_VALUE);
+        int granted = 0;
+        // 1.2 seconds at 25 instructions per second, accruing 0.75 instructions per slice
+        for (int i = 0; i < 40; i++)
+        {
+            now += sliceNanos;
+            int instructions = allowance.acquire(25D, now, Integer.MAX_VALUE);
+            allowance.consume(instructions);
+            granted += instructions;
+        }
+        Assertions.assertEquals(30, granted, "Fractional allowance was lost");
+
+        // Saved up allowance is limited to the burst size
+        now += 10_000_000_000L;
+        Assertions.assertEquals(50, allowance.acquire(1000D, now, Integer.MAX_VALUE));
+        Assertions.assertEquals(20, allowance.acquire(1000D, now, 20));
+        Assertions.assertEquals(7, allowance.acquire(Double.POSITIVE_INFINITY, now, 7));
+    }
+
+    @Test
+    void testRegistrationBatching()
+    {
+        RegistrationQueue<String, String> queue = new RegistrationQueue<>();
+        Map<String, String> active = new HashMap<>();
+        List<String> events = new ArrayList<>();
+        BiConsumer<String, String> onAdded = (key, value) -> events.add("+" + value);
+        BiConsumer<String, String> onRemoved = (key, value) -> events.add("-" + value);
+
+        queue.add("a", "a1");
+        queue.add("b", "b1");
+        queue.add("c", "c1");
+        // Added and removed again within the same batch, never becomes active
+        queue.remove("b");
+        queue.apply(active, onAdded, onRemoved);
+        Assertions.assertEquals(List.of("+a1", "+c1"), events);
+        Assertions.assertEquals(Map.of("a", "a1", "c", "c1"), active);
+        Assertions.assertTrue(queue.isEmpty());
+
+        events.clear();
+        // Re-adding an active key replaces its value, the previous one gets removed first
+        queue.add("a", "a2");
+        queue.remove("c");
+        // Unknown keys are skipped instead of failing the whole batch
+        queue.remove("d");
+        queue.add("e", "e1");
+        queue.add("e", "e2");
+        queue.apply(active, onAdded, onRemoved);
+        Assertions.assertEquals(List.of("-c1", "-a1", "+a2", "+e2"), events);
+        Assertions.assertEquals(Map.of("a", "a2", "e", "e2"), active);
+
+        events.clear();
+        // Removed and added again within the same batch, ends up replaced
+        queue.remove("a");
+        queue.add("a", "a3");
+        queue.apply(active, onAdded, onRemoved);
+        Assertions.assertEquals(List.of("-a2", "+a3"), events);
+        Assertions.assertEquals(Map.of("a", "a3", "e", "e2"), active);
+    }
+
+    @Test
+    void testCodeStoreSharesPrograms()
+    {
+        CodeStore store = new CodeStore();
+        GlobalPos first = GlobalPos.of(Level.OVERWORLD, new BlockPos(0, 64, 0));
+        GlobalPos second = GlobalPos.of(Level.OVERWORLD, new BlockPos(1, 64, 0));
+        Code code = new Code("test", new byte[] { 0x04 }, Int2ObjectMaps.emptyMap(), "8051");
+
+        String hash = store.reference(first, code, 0L);
+        Assertions.assertEquals(CodeStore.hash(code), hash);
+        Assertions.assertEquals(hash, store.reference(second, new Code("test", new byte[] { 0x04 }, Int2ObjectMaps.emptyMap(), "8051"), 0L));
+        Assertions.assertEquals(1, store.size(), "Identical programs not stored once");
+        Assertions.assertNull(store.reference(first, Code.EMPTY, 0L), "Empty program got a hash");
+
+        // Loading another program into the last controller referencing the old one orphans it
+        String otherHash = store.reference(second, new Code("other", new byte[] { 0x00 }, Int2ObjectMaps.emptyMap(), "8051"), 10L);
+        Assertions.assertNotEquals(hash, otherHash);
+        Assertions.assertEquals(2, store.size());
+        Assertions.assertEquals(1, store.removeOrphans(1_000_000L));
+        Assertions.assertNull(store.getCode(hash));
+        Assertions.assertNotNull(store.getCode(otherHash));
+    }
+
+    @Test
+    void testCodeStoreKeepsReleasedProgramForGracePeriod()
+    {
+        CodeStore store = new CodeStore();
+        GlobalPos pos = GlobalPos.of(Level.OVERWORLD, new BlockPos(0, 64, 0));
+        Code code = new Code("test", new byte[] { 0x04 }, Int2ObjectMaps.emptyMap(), "8051");
+        String hash = store.reference(pos, code, 0L);
+
+        store.release(pos, 100L);
+        Assertions.assertEquals(0, store.removeOrphans(200L), "Program dropped within grace period");
+        // A controller replaced within the grace period picks its program back up
+        GlobalPos movedPos = GlobalPos.of(Level.OVERWORLD, new BlockPos(0, 65, 0));
+        Assertions.assertEquals(code, store.restore(movedPos, hash, 300L));
+        Assertions.assertEquals(0, store.removeOrphans(1_000_000L), "Referenced program dropped");
+
+        store.release(movedPos, 1_000_000L);
+        Assertions.assertEquals(1, store.removeOrphans(2_000_000L), "Orphaned program not dropped after grace period");
+        Assertions.assertEquals(0, store.size());
+    }
+
+    @Test
+    void testCodeStoreMissingProgram()
+    {
+        CodeStore store = new CodeStore();
+        GlobalPos pos = GlobalPos.of(Level.OVERWORLD, new BlockPos(0, 64, 0));
+        Code code = new Code("test", new byte[] { 0x04 }, Int2ObjectMaps.emptyMap(), "8051");
+
+        Assertions.assertNull(store.restore(pos, CodeStore.hash(code), 0L), "Missing program restored");
+        Assertions.assertEquals(0, store.size());
+        // Restoring a missing program doesn't drop the reference to the program previously loaded
+        String hash = store.reference(pos, code, 0L);
+        Assertions.assertNull(store.restore(pos, "missing", 10L));
+        Assertions.assertEquals(0, store.removeOrphans(1_000_000L));
+        Assertions.assertEquals(code, store.getCode(hash));
+    }
+
+    @Test
+    void testWorkerPool() throws Exception
+    {
+        ForkJoinPool pool = InterpreterThreadPool.createWorkerPool(2);
+        try
+        {
+            Assertions.assertEquals(2, pool.getParallelism());
+            Assertions.assertTrue(pool.getAsyncMode(), "Worker pool must process tasks in FIFO order");
+
+            // The outer task occupies its worker until both inner tasks ran, which is only possible if the other
+            // worker steals them from the queue of the outer task's worker
+            CountDownLatch latch = new CountDownLatch(2);
+            Set<String> threadNames = ConcurrentHashMap.newKeySet();
+            Future<Boolean> outer = pool.submit(() ->
+            {
+                threadNames.add(Thread.currentThread().getName());
+                for (int i = 0; i < 2; i++)
+                {
+                    pool.submit(() ->
+                    {
+                        threadNames.add(Thread.currentThread().getName());
+                        latch.countDown();
+                    });
+                }
+                return latch.await(5, TimeUnit.SECONDS);
+            });
+            Assertions.assertTrue(outer.get(10, TimeUnit.SECONDS), "Queued tasks were not stolen by the idle worker");
+            Assertions.assertEquals(2, threadNames.size());
+            for (String name : threadNames)
+            {
+                Assertions.assertTrue(name.startsWith("RCU Interpreter Worker #"), "Unexpected worker name: " + name);
+            }
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void assertSameState(Interpreter reference, Interpreter actual)
+    {
+        Assertions.assertEquals(reference.getContext().getProgramCounter(), actual.getContext().getProgramCounter(), "ProgramCounter does not match");
+        Assertions.assertArrayEquals(reference.getRam(), actual.getRam(), "RAM does not match");
+        Assertions.assertArrayEquals(reference.getSfr(), actual.getSfr(), "SFR does not match");
+        Assertions.assertEquals(reference.getMachineCycles(), actual.getMachineCycles(), "Machine cycles do not match");
+    }
+
+    private static Interpreter createInterpreter()
+    {
+        return new Interpreter(new Interpreter.InterpreterContext(CPUCore.CPU8051, Constants.ROM_SIZE, Constants.RAM_SIZE, Constants.SFR_SIZE, Constants.EXT_RAM_SIZE));
+    }
+
+    private static Interpreter createInterpreter(byte[] rom)
+    {
+        Interpreter interpreter = createInterpreter();
+        interpreter.loadCode(new Code("test", rom, Int2ObjectMaps.emptyMap(), "8051"));
+        return interpreter;
+    }
+
+    private static Interpreter createTimerInterpreter(byte[] rom)
+    {
+        Interpreter interpreter = createInterpreter(rom);
+        interpreter.getTimers().setClockSource(TimerClockSource.MACHINE_CYCLE);
+        RamAdapter ram = new RamAdapter(interpreter.getRam(), interpreter.getSfr(), interpreter.getExtRam());
+        ram.setSfr(Constants.ADDRESS_TMOD, 0b00000001);
+        ram.setSfr(Constants.ADDRESS_TCON, 0b00010000);
+        ram.setSfr(Constants.ADDRESS_TL0, 0x00);
+        ram.setSfr(Constants.ADDRESS_TH0, 0xF0);
+        return interpreter;
+    }
+
     private static void test(
             int[] code,
             int initialPc,
@@ -3311,18 +4434,44 @@ public class InterpreterTests
             int expectedPC
     )
     {
-        Interpreter interpreter = new Interpreter(new Interpreter.InterpreterContext(CPUCore.CPU8051, Constants.ROM_SIZE, Constants.RAM_SIZE, Constants.SFR_SIZE, Constants.EXT_RAM_SIZE));
-        // Build ROM, padded by NOP until initial PC value
-        byte[] romBytes = new byte[initialPc + code.length];
+        for (ExecutionEngine engine : ExecutionEngine.values())
+        {
+            test(engine, code, initialPc, setupModifier, expectedModifier, expectedPC);
+        }
+    }
+
+    private static void test(
+            ExecutionEngine engine,
+            int[] code,
+            int initialPc,
+            RamModifier setupModifier,
+            RamModifier expectedModifier,
+            int expectedPC
+    )
+    {
+        Interpreter interpreter = createInterpreter();
+        interpreter.setExecutionEngine(engine);
+        // Compile the instruction on its first execution to check the generated code as well
+        boolean jit = engine == ExecutionEngine.JIT;
+        interpreter.setCompileThreshold(1);
+        // Build ROM, padded by NOP until initial PC value. With the JIT, the instruction is followed by a RETI,
+        // which is never compiled and therefore ends the block right after the instruction under test
+        byte[] romBytes = new byte[initialPc + code.length + (jit ? 1 : 0)];
         for (int i = 0; i < code.length; i++)
         {
             romBytes[initialPc + i] = (byte) (code[i] & 0xFF);
         }
+        if (jit)
+        {
+            romBytes[initialPc + code.length] = 0x32;
+        }
         interpreter.loadCode(new Code("test", romBytes, Int2ObjectMaps.emptyMap(), "8051"));
         interpreter.getContext().setProgramCounter(initialPc);
 
         // Set up data needed for test
-        setupModifier.modify(new RamAdapter(interpreter.getRam(), interpreter.getSfr(), interpreter.getExtRam()));
+        byte[] extSetup = interpreter.getExtRam();
+        setupModifier.modify(new RamAdapter(interpreter.getRam(), interpreter.getSfr(), extSetup));
+        interpreter.getContext().extRam.copyFrom(extSetup);
 
         // Set up expected ram layout
         byte[] ramExpected = interpreter.getRam().clone();
@@ -3332,15 +4481,24 @@ public class InterpreterTests
         sfrExpected[Constants.ADDRESS_TCON - Constants.SFR_START] |= 0x0A;
         expectedModifier.modify(new RamAdapter(ramExpected, sfrExpected, extExpected));
 
-        interpreter.run();
+        if (jit)
+        {
+            Assertions.assertEquals(1, interpreter.runSlice(1, 0), "Executed instructions do not match expected (" + engine + ")");
+        }
+        else
+        {
+            interpreter.run();
+        }
         byte[] ramActual = interpreter.getRam();
         byte[] sfrActual = interpreter.getSfr();
         byte[] extActual = interpreter.getExtRam();
 
-        Assertions.assertEquals(expectedPC, interpreter.getContext().getProgramCounter(), "ProgramCounter does not match expected");
-        Assertions.assertArrayEquals(ramExpected, ramActual, "RAM does not match expected");
-        Assertions.assertArrayEquals(sfrExpected, sfrActual, "SFR does not match expected");
-        Assertions.assertArrayEquals(extExpected, extActual, "External RAM does not match expected");
+        int expectedCycles = I8051Opcode.OPCODES[code[0] & 0xFF].getCycles();
+        Assertions.assertEquals(expectedPC, interpreter.getContext().getProgramCounter(), "ProgramCounter does not match expected (" + engine + ")");
+        Assertions.assertArrayEquals(ramExpected, ramActual, "RAM does not match expected (" + engine + ")");
+        Assertions.assertArrayEquals(sfrExpected, sfrActual, "SFR does not match expected (" + engine + ")");
+        Assertions.assertArrayEquals(extExpected, extActual, "External RAM does not match expected (" + engine + ")");
+        Assertions.assertEquals(expectedCycles, interpreter.getMachineCycles(), "Machine cycles do not match expected (" + engine + ")");
     }
 
     @FunctionalInterface